@@ -0,0 +1,55 @@
+package benchmarks;
+
+import chess.ChessBoard;
+import chess.ChessGame;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Board equality and hashing, as used when positions are keys in maps and sets
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class BoardBenchmark {
+
+    private ChessBoard board;
+    private ChessBoard equal;
+    private ChessBoard different;
+
+    @Setup
+    public void setUp() {
+        board = Positions.KIWIPETE.game().getBoard();
+        equal = new ChessBoard(board);
+        different = Positions.START.game().getBoard();
+    }
+
+    @Benchmark
+    public int boardHashCode() {
+        return board.hashCode();
+    }
+
+    @Benchmark
+    public boolean boardEqualsEqual() {
+        return board.equals(equal);
+    }
+
+    @Benchmark
+    public boolean boardEqualsDifferent() {
+        return board.equals(different);
+    }
+
+    @Benchmark
+    public int gameHashCode(GameState state) {
+        return state.game.hashCode();
+    }
+
+    @State(Scope.Thread)
+    public static class GameState {
+        ChessGame game = Positions.KIWIPETE.game();
+    }
+}
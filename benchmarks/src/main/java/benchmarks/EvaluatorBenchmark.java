@@ -0,0 +1,70 @@
+package benchmarks;
+
+import chess.ChessGame;
+import chess.Evaluator;
+import chess.MaterialEvaluator;
+import chess.NnueEvaluator;
+import chess.NnueWeights;
+import chess.PieceSquareEvaluator;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * One static evaluation, as search does at every leaf. The network has random
+ * weights, which cost the same to run as trained ones.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class EvaluatorBenchmark {
+
+    @Param({"START", "KIWIPETE"})
+    public Positions position;
+
+    private ChessGame game;
+    private Evaluator material;
+    private Evaluator pieceSquare;
+    private Evaluator nnue;
+
+    @Setup
+    public void setUp() {
+        game = position.game();
+        material = new MaterialEvaluator();
+        pieceSquare = new PieceSquareEvaluator();
+        // Attached as a search would be, so only inference is measured
+        nnue = new NnueEvaluator(randomNetwork(256)).attach(game);
+    }
+
+    @Benchmark
+    public int material() {
+        return material.evaluate(game);
+    }
+
+    @Benchmark
+    public int pieceSquare() {
+        return pieceSquare.evaluate(game);
+    }
+
+    @Benchmark
+    public int nnue() {
+        return nnue.evaluate(game);
+    }
+
+    private static NnueWeights randomNetwork(int hidden) {
+        var random = new Random(1);
+        short[] inputWeights = new short[NnueWeights.INPUTS * hidden];
+        for (int i = 0; i < inputWeights.length; i++) {
+            inputWeights[i] = (short) (random.nextInt(64) - 32);
+        }
+        short[] outputWeights = new short[2 * hidden];
+        for (int i = 0; i < outputWeights.length; i++) {
+            outputWeights[i] = (short) (random.nextInt(64) - 32);
+        }
+        return new NnueWeights(inputWeights, new short[hidden], outputWeights, 0);
+    }
+}
@@ -0,0 +1,40 @@
+package benchmarks;
+
+import chess.ChessGame;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Reading and writing positions in Forsyth-Edwards Notation
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class FenBenchmark {
+
+    @Param({"START", "KIWIPETE", "ENDGAME"})
+    public Positions position;
+
+    private String fen;
+    private ChessGame game;
+
+    @Setup
+    public void setUp() {
+        fen = position.fen();
+        game = position.game();
+    }
+
+    @Benchmark
+    public ChessGame parse() {
+        return ChessGame.fromFen(fen);
+    }
+
+    @Benchmark
+    public String format() {
+        return game.toFen();
+    }
+}
@@ -0,0 +1,58 @@
+package benchmarks;
+
+import chess.ChessGame;
+import chess.ChessMove;
+import chess.ChessPosition;
+import chess.InvalidMoveException;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Check, checkmate and stalemate queries, and playing and taking back a move
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class GameStatusBenchmark {
+
+    @Param({"START", "KIWIPETE"})
+    public Positions position;
+
+    private ChessGame game;
+    private ChessGame played;
+    private ChessMove move;
+
+    @Setup
+    public void setUp() {
+        game = position.game();
+        ChessPosition from = new ChessPosition(2, 1);
+        move = new ChessMove(from, new ChessPosition(3, 1), null);
+        played = new ChessGame(game);
+    }
+
+    @Benchmark
+    public boolean isInCheck() {
+        return game.isInCheck(game.getTeamTurn());
+    }
+
+    @Benchmark
+    public boolean isInCheckmate() {
+        return game.isInCheckmate(game.getTeamTurn());
+    }
+
+    @Benchmark
+    public boolean isInStalemate() {
+        return game.isInStalemate(game.getTeamTurn());
+    }
+
+    @Benchmark
+    public ChessGame makeAndUnmakeMove() throws InvalidMoveException {
+        played.makeMove(move);
+        played.unmakeMove();
+        return played;
+    }
+}
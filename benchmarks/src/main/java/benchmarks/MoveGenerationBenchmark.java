@@ -0,0 +1,75 @@
+package benchmarks;
+
+import chess.ChessGame;
+import chess.ChessPiece;
+import chess.ChessPosition;
+import chess.ParallelPerft;
+import chess.Perft;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Move generation for a single piece, for one team, and over a whole tree
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class MoveGenerationBenchmark {
+
+    @Param({"START", "KIWIPETE"})
+    public Positions position;
+
+    private ChessGame game;
+    private ChessPosition queenPosition;
+    private ChessPiece queen;
+
+    @Setup
+    public void setUp() {
+        game = position.game();
+        for (int row = 1; row <= 8 && queen == null; row++) {
+            for (int col = 1; col <= 8; col++) {
+                ChessPiece piece = game.getBoard().getPiece(new ChessPosition(row, col));
+                if (piece != null && piece.getPieceType() == ChessPiece.PieceType.QUEEN) {
+                    queen = piece;
+                    queenPosition = new ChessPosition(row, col);
+                    break;
+                }
+            }
+        }
+    }
+
+    @Benchmark
+    public Object queenPieceMoves() {
+        return queen.pieceMoves(game.getBoard(), queenPosition);
+    }
+
+    @Benchmark
+    public void validMovesAllPieces(Blackhole blackhole) {
+        for (int row = 1; row <= 8; row++) {
+            for (int col = 1; col <= 8; col++) {
+                ChessPosition pos = new ChessPosition(row, col);
+                ChessPiece piece = game.getBoard().getPiece(pos);
+                if (piece != null && piece.getTeamColor() == game.getTeamTurn()) {
+                    blackhole.consume(game.validMoves(pos));
+                }
+            }
+        }
+    }
+
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    public long perft3() {
+        return Perft.perft(game, 3);
+    }
+
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    public long perft4Parallel() {
+        return ParallelPerft.perft(game, 4);
+    }
+}
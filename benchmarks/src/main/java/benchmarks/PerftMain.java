@@ -0,0 +1,52 @@
+package benchmarks;
+
+import chess.ChessGame;
+import chess.ParallelPerft;
+import chess.Perft;
+
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * Runs perft over the standard positions, checks each count against the
+ * published value and reports nodes per second.
+ * <p>
+ * Usage: {@code PerftMain [maxDepth] [threads]}. Each position is searched to
+ * the smaller of maxDepth and its deepest published count. With more than one
+ * thread the tree is split across a fork/join pool of that size.
+ */
+public class PerftMain {
+
+    public static void main(String[] args) {
+        int maxDepth = args.length > 0 ? Integer.parseInt(args[0]) : 5;
+        int threads = args.length > 1 ? Integer.parseInt(args[1]) : 1;
+        ForkJoinPool pool = threads > 1 ? new ForkJoinPool(threads) : null;
+        boolean failed = false;
+        long totalNodes = 0;
+        long totalNanos = 0;
+
+        for (Positions position : Positions.values()) {
+            ChessGame game = position.game();
+            for (int depth = 1; depth <= Math.min(maxDepth, position.maxDepth()); depth++) {
+                long start = System.nanoTime();
+                long nodes = pool == null ? Perft.perft(game, depth) : ParallelPerft.perft(game, depth, pool);
+                long nanos = System.nanoTime() - start;
+                totalNodes += nodes;
+                totalNanos += nanos;
+
+                long expected = position.expectedNodes(depth);
+                String status = nodes == expected ? "ok" : "MISMATCH, expected " + expected;
+                failed |= nodes != expected;
+                System.out.printf("%-10s depth %d  %,12d nodes  %8.1f ms  %,14.0f nodes/s  %s%n",
+                        position, depth, nodes, nanos / 1e6, nodes * 1e9 / nanos, status);
+            }
+        }
+        System.out.printf("total %,d nodes in %.1f ms, %,.0f nodes/s%n",
+                totalNodes, totalNanos / 1e6, totalNodes * 1e9 / totalNanos);
+        if (pool != null) {
+            pool.shutdown();
+        }
+        if (failed) {
+            System.exit(1);
+        }
+    }
+}
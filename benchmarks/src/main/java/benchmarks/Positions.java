@@ -0,0 +1,46 @@
+package benchmarks;
+
+import chess.ChessGame;
+
+/**
+ * Standard perft test positions, with their published node counts
+ */
+public enum Positions {
+    START("rnbqkbnr/pppppppp/8/8/8/8/PPPPPPPP/RNBQKBNR w KQkq - 0 1",
+            20, 400, 8902, 197281, 4865609),
+    KIWIPETE("r3k2r/p1ppqpb1/bn2pnp1/3PN3/1p2P3/2N2Q1p/PPPBBPPP/R3K2R w KQkq - 0 1",
+            48, 2039, 97862, 4085603),
+    ENDGAME("8/2p5/3p4/KP5r/1R3p1k/8/4P1P1/8 w - - 0 1",
+            14, 191, 2812, 43238, 674624),
+    PROMOTIONS("r3k2r/Pppp1ppp/1b3nbN/nP6/BBP1P3/q4N2/Pp1P2PP/R2Q1RK1 w kq - 0 1",
+            6, 264, 9467, 422333),
+    MIDDLEGAME("rnbq1k1r/pp1Pbppp/2p5/8/2B5/8/PPP1NnPP/RNBQK2R w KQ - 1 8",
+            44, 1486, 62379, 2103487);
+
+    private final String fen;
+    private final long[] nodes;
+
+    Positions(String fen, long... nodes) {
+        this.fen = fen;
+        this.nodes = nodes;
+    }
+
+    public String fen() {
+        return fen;
+    }
+
+    public ChessGame game() {
+        return ChessGame.fromFen(fen);
+    }
+
+    public int maxDepth() {
+        return nodes.length;
+    }
+
+    /**
+     * @return the published perft node count at the depth
+     */
+    public long expectedNodes(int depth) {
+        return nodes[depth - 1];
+    }
+}
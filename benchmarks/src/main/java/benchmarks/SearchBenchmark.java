@@ -0,0 +1,51 @@
+package benchmarks;
+
+import chess.ChessGame;
+import chess.MaterialEvaluator;
+import chess.Search;
+import chess.SearchResult;
+import chess.TranspositionTable;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * A fixed-depth search from an empty transposition table, so that the time
+ * per search reflects move ordering and pruning rather than the table's
+ * contents from earlier iterations
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Thread)
+public class SearchBenchmark {
+
+    @Param({"START", "KIWIPETE"})
+    public Positions position;
+
+    @Param({"5"})
+    public int depth;
+
+    private ChessGame game;
+    private TranspositionTable table;
+    private Search search;
+
+    @Setup
+    public void setUp() {
+        game = position.game();
+        table = new TranspositionTable(16 << 20);
+        search = new Search(table, new MaterialEvaluator());
+    }
+
+    @Setup(Level.Invocation)
+    public void clearTable() {
+        table.clear();
+    }
+
+    @Benchmark
+    public SearchResult search() {
+        return search.search(game, depth, Long.MAX_VALUE / 2_000_000);
+    }
+}
@@ -0,0 +1,48 @@
+package benchmarks;
+
+import chess.PieceSquareEvaluator;
+import chess.PackedMove;
+import chess.ParallelSearch;
+import chess.SearchResult;
+import chess.TranspositionTable;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Searches the standard positions for a fixed time with 1, 2, 4 ... threads up
+ * to the given count and reports the depth reached and nodes per second, to
+ * check how the parallel search scales.
+ * <p>
+ * Usage: {@code SearchMain [millis] [maxThreads]}. The table is cleared before
+ * every search so that no run benefits from an earlier one.
+ */
+public class SearchMain {
+
+    public static void main(String[] args) {
+        long millis = args.length > 0 ? Long.parseLong(args[0]) : 2000;
+        int maxThreads = args.length > 1 ? Integer.parseInt(args[1]) : Runtime.getRuntime().availableProcessors();
+        ExecutorService helpers = Executors.newFixedThreadPool(Math.max(1, maxThreads - 1));
+        TranspositionTable table = new TranspositionTable(256L << 20);
+
+        for (int threads = 1; ; threads = Math.min(threads * 2, maxThreads)) {
+            long totalNodes = 0;
+            long totalMillis = 0;
+            var search = new ParallelSearch(table, new PieceSquareEvaluator(), threads, helpers);
+            for (Positions position : Positions.values()) {
+                table.clear();
+                SearchResult result = search.search(position.game(), millis);
+                totalNodes += result.nodes();
+                totalMillis += result.millis();
+                System.out.printf("%2d threads  %-10s depth %2d  %,12d nodes  %,14d nodes/s  %s%n",
+                        threads, position, result.depth(), result.nodes(), result.nodesPerSecond(),
+                        PackedMove.toString(PackedMove.fromChessMove(result.bestMove())));
+            }
+            System.out.printf("%2d threads  total %,d nodes/s%n", threads, totalNodes * 1000 / Math.max(1, totalMillis));
+            if (threads == maxThreads) {
+                break;
+            }
+        }
+        helpers.shutdown();
+    }
+}
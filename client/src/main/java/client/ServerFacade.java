@@ -2,6 +2,7 @@ package client;
 
 import model.*;
 import com.google.gson.Gson;
+import serialization.Serializer;
 import model.GameData;
 import chess.ChessGame;
 
@@ -15,7 +16,7 @@ public class ServerFacade {
 
     private final String serverUrl;
     private final HttpClient client = HttpClient.newHttpClient();
-    private final Gson gson = new Gson();
+    private final Gson gson = Serializer.gson();
 
     public ServerFacade(String serverUrl) {
         this.serverUrl = serverUrl;
@@ -1,5 +1,6 @@
 package dataaccess;
 
+import chess.GameReplay;
 import model.UserData;
 import model.GameData;
 import model.AuthData;
@@ -31,6 +32,8 @@ public interface DataAccess {
 
     void updateGame(GameData game) throws DataAccessException;
 
+    GameReplay getGameReplay(int id) throws DataAccessException;
+
     void clearDatabase() throws DataAccessException;
 
 }
@@ -1,5 +1,7 @@
 package dataaccess;
 
+import chess.ChessGame;
+import chess.GameReplay;
 import model.UserData;
 import model.GameData;
 import model.AuthData;
@@ -97,4 +99,13 @@ public class InMemoryDataAccess implements DataAccess {
             games.put(game.gameID(), game);
         }
     }
+
+    @Override
+    public GameReplay getGameReplay(int id) {
+        GameData data = games.get(id);
+        if (data == null) {
+            return null;
+        }
+        return data.game() == null ? new ChessGame().replay() : data.game().replay();
+    }
 }
@@ -0,0 +1,69 @@
+package dataaccess;
+
+import chess.ChessBoard;
+import chess.ChessGame;
+import chess.ChessPiece;
+import chess.ChessPosition;
+import chess.GameCodec;
+import com.google.gson.JsonArray;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Reads the JSON game states written before games were stored with
+ * {@link GameCodec}, which hold the team to move and the board as an 8x8
+ * array of pieces.
+ */
+final class LegacyGameState {
+
+    private LegacyGameState() {
+    }
+
+    /**
+     * @return true if the stored bytes are JSON rather than a binary encoding
+     */
+    static boolean isJson(byte[] state) {
+        return state.length > 0 && state[0] == '{';
+    }
+
+    /**
+     * @return the game stored in the bytes, in either format
+     */
+    static ChessGame read(byte[] state) {
+        if (isJson(state)) {
+            return fromJson(new String(state, StandardCharsets.UTF_8));
+        }
+        return GameCodec.decode(state);
+    }
+
+    static ChessGame fromJson(String json) {
+        JsonObject root = JsonParser.parseString(json).getAsJsonObject();
+        JsonObject boardJson = root.getAsJsonObject("board");
+        ChessBoard board = new ChessBoard();
+        readSquares(boardJson.getAsJsonArray("board"), board);
+
+        ChessGame game = new ChessGame();
+        game.setBoard(board);
+        game.setTeamTurn(ChessGame.TeamColor.valueOf(root.get("team").getAsString()));
+        return game;
+    }
+
+    private static void readSquares(JsonArray rows, ChessBoard board) {
+        for (int row = 0; row < rows.size(); row++) {
+            JsonArray cols = rows.get(row).getAsJsonArray();
+            for (int col = 0; col < cols.size(); col++) {
+                JsonElement cell = cols.get(col);
+                if (cell.isJsonNull()) {
+                    continue;
+                }
+                JsonObject piece = cell.getAsJsonObject();
+                board.addPiece(new ChessPosition(row + 1, col + 1), ChessPiece.of(
+                        ChessGame.TeamColor.valueOf(piece.get("pieceColor").getAsString()),
+                        ChessPiece.PieceType.valueOf(piece.get("type").getAsString())));
+            }
+        }
+    }
+}
@@ -4,26 +4,57 @@ import model.UserData;
 import model.AuthData;
 import model.GameData;
 import chess.ChessGame;
+import chess.GameCodec;
+import chess.GameReplay;
+import chess.InvalidMoveException;
+import chess.PackedMove;
 import java.sql.*;
 import java.util.*;
 
-import com.google.gson.Gson;
-import com.google.gson.GsonBuilder;
-
 public class MySqlDataAccess implements DataAccess {
 
-    private final Gson gson = new GsonBuilder().setPrettyPrinting().create();
+    /**
+     * Games are stored as a log of moves in GameMoves plus a snapshot of the
+     * position in Games. The snapshot is taken at the last capture or pawn move,
+     * so that a loaded game replays every position that could still repeat, and
+     * is moved forward once that point is this many plies past it. Loading a
+     * game replays the moves since the last capture or pawn move plus fewer
+     * than this.
+     */
+    static final int SNAPSHOT_INTERVAL = 32;
+    /** Replays kept for seeking, for the games most recently replayed */
+    static final int REPLAY_CACHE_GAMES = 64;
+
+    /**
+     * Built once per game and dropped whenever the game is updated, so stepping
+     * through a game seeks from a checkpoint instead of replaying every move.
+     * Guarded by itself, as is {@link #updates}.
+     */
+    private final Map<Integer, GameReplay> replays = new LinkedHashMap<>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<Integer, GameReplay> eldest) {
+            return size() > REPLAY_CACHE_GAMES;
+        }
+    };
+    /** Counts updates, so a replay read before one is not cached after it */
+    private long updates;
 
     @Override
     public void clearDatabase() throws DataAccessException {
         try (Connection conn = DatabaseManager.getConnection()) {
             try (Statement stmt = conn.createStatement()) {
+                stmt.executeUpdate("DELETE FROM GameMoves");
                 stmt.executeUpdate("DELETE FROM Games");
                 stmt.executeUpdate("DELETE FROM Auths");
                 stmt.executeUpdate("DELETE FROM Users");
             }
         } catch (SQLException e) {
             throw new DataAccessException("Failed to clear database", e);
+        } finally {
+            synchronized (replays) {
+                replays.clear();
+                updates++;
+            }
         }
     }
 
@@ -135,14 +166,25 @@ public class MySqlDataAccess implements DataAccess {
         if (gameName == null) {
             throw new DataAccessException("Invalid game name");
         }
-        String sql = "INSERT INTO Games (game_name, white_username, black_username, game_state) VALUES (?, ?, ?, ?)";
+        String sql = """
+                INSERT INTO Games (game_name, white_username, black_username, game_state, snapshot_ply,
+                                   start_state, start_ply, head_ply, head_key)
+                VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?)
+                """;
         int generatedId = -1;
+        ChessGame game = new ChessGame();
         try (Connection conn = DatabaseManager.getConnection();
              PreparedStatement stmt = conn.prepareStatement(sql, Statement.RETURN_GENERATED_KEYS)) {
             stmt.setString(1, gameName);
             stmt.setNull(2, Types.VARCHAR);
             stmt.setNull(3, Types.VARCHAR);
-            stmt.setString(4, gson.toJson(new ChessGame()));
+            byte[] state = GameCodec.encode(game);
+            stmt.setBytes(4, state);
+            stmt.setInt(5, game.getPly());
+            stmt.setBytes(6, state);
+            stmt.setInt(7, game.getPly());
+            stmt.setInt(8, game.getPly());
+            stmt.setLong(9, game.zobristKey());
             stmt.executeUpdate();
 
             try (ResultSet rs = stmt.getGeneratedKeys()) {
@@ -161,18 +203,32 @@ public class MySqlDataAccess implements DataAccess {
     public List<GameData> listGames() throws DataAccessException {
         List<GameData> games = new ArrayList<>();
         String sql = "SELECT game_id, white_username, black_username, game_name, game_state FROM Games";
+        // Every game's moves since its snapshot, in one query rather than one per game
+        String movesSql = """
+                SELECT m.game_id, m.move FROM GameMoves m JOIN Games g ON g.game_id = m.game_id
+                WHERE m.ply > g.snapshot_ply ORDER BY m.game_id, m.ply
+                """;
         try (Connection conn = DatabaseManager.getConnection();
              PreparedStatement stmt = conn.prepareStatement(sql);
-             ResultSet rs = stmt.executeQuery()) {
-            while (rs.next()) {
-                ChessGame game = gson.fromJson(rs.getString("game_state"), ChessGame.class);
-                games.add(new GameData(
-                        rs.getInt("game_id"),
-                        rs.getString("white_username"),
-                        rs.getString("black_username"),
-                        rs.getString("game_name"),
-                        game
-                ));
+             PreparedStatement movesStmt = conn.prepareStatement(movesSql)) {
+            Map<Integer, ChessGame> byId = new HashMap<>();
+            try (ResultSet rs = stmt.executeQuery()) {
+                while (rs.next()) {
+                    ChessGame game = readGame(rs);
+                    games.add(new GameData(
+                            rs.getInt("game_id"),
+                            rs.getString("white_username"),
+                            rs.getString("black_username"),
+                            rs.getString("game_name"),
+                            game
+                    ));
+                    byId.put(rs.getInt("game_id"), game);
+                }
+            }
+            try (ResultSet rs = movesStmt.executeQuery()) {
+                while (rs.next()) {
+                    replay(byId.get(rs.getInt("game_id")), rs.getInt("move"));
+                }
             }
         } catch (SQLException e) {
             throw new DataAccessException("Failed to list games", e);
@@ -182,13 +238,28 @@ public class MySqlDataAccess implements DataAccess {
 
     @Override
     public GameData getGameByID(int id) throws DataAccessException {
-        String sql = "SELECT game_id, white_username, black_username, game_name, game_state FROM Games WHERE game_id = ?";
+        String sql = """
+                SELECT game_id, white_username, black_username, game_name, game_state, snapshot_ply, head_ply
+                FROM Games WHERE game_id = ?
+                """;
+        String movesSql = "SELECT move FROM GameMoves WHERE game_id = ? AND ply > ? ORDER BY ply";
         try (Connection conn = DatabaseManager.getConnection();
              PreparedStatement stmt = conn.prepareStatement(sql)) {
             stmt.setInt(1, id);
             try (ResultSet rs = stmt.executeQuery()) {
                 if (rs.next()) {
-                    ChessGame game = gson.fromJson(rs.getString("game_state"), ChessGame.class);
+                    ChessGame game = readGame(rs);
+                    if (game != null && rs.getInt("head_ply") > rs.getInt("snapshot_ply")) {
+                        try (PreparedStatement movesStmt = conn.prepareStatement(movesSql)) {
+                            movesStmt.setInt(1, id);
+                            movesStmt.setInt(2, rs.getInt("snapshot_ply"));
+                            try (ResultSet moves = movesStmt.executeQuery()) {
+                                while (moves.next()) {
+                                    replay(game, moves.getInt("move"));
+                                }
+                            }
+                        }
+                    }
                     return new GameData(
                             rs.getInt("game_id"),
                             rs.getString("white_username"),
@@ -205,18 +276,240 @@ public class MySqlDataAccess implements DataAccess {
         }
     }
 
+    /**
+     * Appends the moves played since the game was last stored to GameMoves and
+     * only moves the snapshot every {@link #SNAPSHOT_INTERVAL} plies. A game
+     * that does not continue from the stored position, because moves were taken
+     * back or the board was replaced, has its snapshot rewritten. If it can
+     * still take back to the stored snapshot, the logged moves after the
+     * earliest position it can take back to are replaced; otherwise the log
+     * starts over from that position.
+     */
     @Override
     public void updateGame(GameData gameData) throws DataAccessException {
-        String sql = "UPDATE Games SET white_username = ?, black_username = ?, game_state = ? WHERE game_id = ?";
+        int gameID = gameData.gameID();
+        ChessGame game = gameData.game();
+        String headSql = """
+                SELECT game_state, snapshot_ply, start_ply, head_ply, head_key FROM Games
+                WHERE game_id = ? FOR UPDATE
+                """;
+        String playersSql = "UPDATE Games SET white_username = ?, black_username = ? WHERE game_id = ?";
+        String headUpdate = "UPDATE Games SET head_ply = ?, head_key = ? WHERE game_id = ?";
+        String snapshotUpdate = "UPDATE Games SET snapshot_ply = ?, game_state = ? WHERE game_id = ?";
+        String startUpdate = "UPDATE Games SET start_ply = ?, start_state = ? WHERE game_id = ?";
+        String truncate = "DELETE FROM GameMoves WHERE game_id = ? AND ply > ?";
+        String append = "INSERT INTO GameMoves (game_id, ply, move) VALUES (?, ?, ?)";
+        try (Connection conn = DatabaseManager.getConnection()) {
+            conn.setAutoCommit(false);
+            try {
+                byte[] snapshot;
+                int snapshotPly;
+                int startPly;
+                int headPly;
+                Long headKey;
+                try (PreparedStatement stmt = conn.prepareStatement(headSql)) {
+                    stmt.setInt(1, gameID);
+                    try (ResultSet rs = stmt.executeQuery()) {
+                        if (!rs.next()) {
+                            conn.rollback();
+                            return;
+                        }
+                        snapshot = rs.getBytes("game_state");
+                        snapshotPly = rs.getInt("snapshot_ply");
+                        startPly = rs.getInt("start_ply");
+                        headPly = rs.getInt("head_ply");
+                        headKey = rs.getObject("head_key", Long.class);
+                    }
+                }
+                try (PreparedStatement stmt = conn.prepareStatement(playersSql)) {
+                    stmt.setString(1, gameData.whiteUsername());
+                    stmt.setString(2, gameData.blackUsername());
+                    stmt.setInt(3, gameID);
+                    stmt.executeUpdate();
+                }
+
+                if (game != null) {
+                    int ply = game.getPly();
+                    int[] history = game.getMoveHistory();
+                    int earliest = ply - history.length;
+                    boolean continues = headKey != null && headPly >= earliest && headPly <= ply
+                            && before(game, ply - headPly).zobristKey() == headKey;
+                    int firstNew = continues ? headPly : earliest;
+                    // The position after the last capture or pawn move still in the history
+                    int irreversiblePly = Math.max(earliest, ply - game.getHalfmoveClock());
+
+                    if (!continues) {
+                        boolean keepsLog = headKey != null && snapshot != null
+                                && startPly <= earliest && earliest <= snapshotPly && snapshotPly <= ply
+                                && before(game, ply - snapshotPly).zobristKey()
+                                == LegacyGameState.read(snapshot).zobristKey();
+                        try (PreparedStatement stmt = conn.prepareStatement(truncate)) {
+                            stmt.setInt(1, gameID);
+                            stmt.setInt(2, keepsLog ? earliest : -1);
+                            stmt.executeUpdate();
+                        }
+                        if (!keepsLog) {
+                            try (PreparedStatement stmt = conn.prepareStatement(startUpdate)) {
+                                stmt.setInt(1, earliest);
+                                stmt.setBytes(2, GameCodec.encode(before(game, history.length)));
+                                stmt.setInt(3, gameID);
+                                stmt.executeUpdate();
+                            }
+                        }
+                    }
+                    if (firstNew < ply) {
+                        try (PreparedStatement stmt = conn.prepareStatement(append)) {
+                            for (int p = firstNew; p < ply; p++) {
+                                stmt.setInt(1, gameID);
+                                stmt.setInt(2, p + 1);
+                                stmt.setShort(3, (short) PackedMove.withoutFlags(history[p - earliest]));
+                                stmt.addBatch();
+                            }
+                            stmt.executeBatch();
+                        }
+                    }
+                    if (!continues || irreversiblePly - snapshotPly >= SNAPSHOT_INTERVAL) {
+                        try (PreparedStatement stmt = conn.prepareStatement(snapshotUpdate)) {
+                            stmt.setInt(1, irreversiblePly);
+                            stmt.setBytes(2, GameCodec.encode(before(game, ply - irreversiblePly)));
+                            stmt.setInt(3, gameID);
+                            stmt.executeUpdate();
+                        }
+                    }
+                    if (ply != headPly || !continues) {
+                        try (PreparedStatement stmt = conn.prepareStatement(headUpdate)) {
+                            stmt.setInt(1, ply);
+                            stmt.setLong(2, game.zobristKey());
+                            stmt.setInt(3, gameID);
+                            stmt.executeUpdate();
+                        }
+                    }
+                }
+                conn.commit();
+            } catch (SQLException e) {
+                conn.rollback();
+                throw e;
+            }
+        } catch (SQLException e) {
+            throw new DataAccessException("Failed to update game", e);
+        } finally {
+            synchronized (replays) {
+                replays.remove(gameID);
+                updates++;
+            }
+        }
+    }
+
+    /**
+     * Replays the game's whole move log from the position it starts at. Games
+     * stored before the log had a starting position replay from their snapshot.
+     * The replay is cached until the game is next updated.
+     *
+     * @return the replay, or null if there is no such game
+     */
+    @Override
+    public GameReplay getGameReplay(int id) throws DataAccessException {
+        long generation;
+        synchronized (replays) {
+            GameReplay cached = replays.get(id);
+            if (cached != null) {
+                return cached;
+            }
+            generation = updates;
+        }
+        GameReplay replay = loadGameReplay(id);
+        synchronized (replays) {
+            if (replay != null && updates == generation) {
+                replays.put(id, replay);
+            }
+        }
+        return replay;
+    }
+
+    private GameReplay loadGameReplay(int id) throws DataAccessException {
+        String sql = "SELECT game_state, snapshot_ply, start_state, start_ply FROM Games WHERE game_id = ?";
+        String movesSql = "SELECT ply, move FROM GameMoves WHERE game_id = ? AND ply > ? ORDER BY ply";
         try (Connection conn = DatabaseManager.getConnection();
              PreparedStatement stmt = conn.prepareStatement(sql)) {
-            stmt.setString(1, gameData.whiteUsername());
-            stmt.setString(2, gameData.blackUsername());
-            stmt.setString(3, gson.toJson(gameData.game()));
-            stmt.setInt(4, gameData.gameID());
-            stmt.executeUpdate();
+            stmt.setInt(1, id);
+            ChessGame start;
+            int startPly;
+            try (ResultSet rs = stmt.executeQuery()) {
+                if (!rs.next()) {
+                    return null;
+                }
+                byte[] startState = rs.getBytes("start_state");
+                if (startState != null) {
+                    start = LegacyGameState.read(startState);
+                    startPly = rs.getInt("start_ply");
+                } else {
+                    start = readGame(rs);
+                    startPly = rs.getInt("snapshot_ply");
+                }
+            }
+            if (start == null) {
+                return null;
+            }
+
+            int[] moves = new int[16];
+            int count = 0;
+            try (PreparedStatement movesStmt = conn.prepareStatement(movesSql)) {
+                movesStmt.setInt(1, id);
+                movesStmt.setInt(2, startPly);
+                try (ResultSet rs = movesStmt.executeQuery()) {
+                    while (rs.next()) {
+                        if (rs.getInt("ply") != startPly + count + 1) {
+                            throw new DataAccessException("Move log for game " + id + " skips ply "
+                                    + (startPly + count + 1));
+                        }
+                        if (count == moves.length) {
+                            moves = Arrays.copyOf(moves, count * 2);
+                        }
+                        moves[count++] = rs.getInt("move");
+                    }
+                }
+            }
+            return new GameReplay(start, Arrays.copyOf(moves, count));
         } catch (SQLException e) {
-            throw new DataAccessException("Failed to update game", e);
+            throw new DataAccessException("Failed to replay game", e);
+        } catch (IllegalArgumentException e) {
+            throw new DataAccessException("Move log for game " + id + " does not replay: " + e.getMessage(), e);
+        }
+    }
+
+    /**
+     * @return the game in the row's game_state, which is binary, or JSON for rows
+     * not yet migrated
+     */
+    private static ChessGame readGame(ResultSet rs) throws SQLException {
+        byte[] state = rs.getBytes("game_state");
+        return state == null ? null : LegacyGameState.read(state);
+    }
+
+    /**
+     * Plays a move from GameMoves. The move is checked like any other, so a log
+     * that does not match its snapshot is reported rather than loaded.
+     */
+    private static void replay(ChessGame game, int move) throws DataAccessException {
+        try {
+            game.makeMove(PackedMove.toChessMove(move));
+        } catch (InvalidMoveException e) {
+            throw new DataAccessException("Stored move " + PackedMove.toString(move) + " is not legal", e);
+        }
+    }
+
+    /**
+     * @return a copy of the game as it was the given number of moves back
+     */
+    private static ChessGame before(ChessGame game, int plies) {
+        ChessGame earlier = new ChessGame(game);
+        try {
+            for (int i = 0; i < plies; i++) {
+                earlier.unmakeMove();
+            }
+        } catch (InvalidMoveException e) {
+            throw new IllegalStateException(e);
         }
+        return earlier;
     }
 }
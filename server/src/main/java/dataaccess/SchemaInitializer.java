@@ -1,6 +1,10 @@
 package dataaccess;
 
+import chess.GameCodec;
+
 import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.sql.Statement;
 
@@ -37,16 +41,105 @@ public class SchemaInitializer {
                             white_username VARCHAR(255),
                             black_username VARCHAR(255),
                             game_name VARCHAR(255),
-                            game_state TEXT,
+                            game_state BLOB,
+                            snapshot_ply INT NOT NULL DEFAULT 0,
+                            start_state BLOB,
+                            start_ply INT NOT NULL DEFAULT 0,
+                            head_ply INT NOT NULL DEFAULT 0,
+                            head_key BIGINT,
                             FOREIGN KEY (white_username) REFERENCES Users(username),
                             FOREIGN KEY (black_username) REFERENCES Users(username)
                         );
                         """;
                 stmt.execute(createGames);
             }
+            migrateGameState(connection);
+            migrateMoveLog(connection);
 
             } catch (SQLException e) {
                 throw new DataAccessException("Failed to initialize database schema", e);
             }
         }
+
+    /**
+     * Games used to be stored as JSON in a TEXT column. Switches the column to
+     * BLOB, which keeps the JSON bytes as they are, then rewrites every JSON row
+     * in the binary encoding. Reads still accept JSON, so a game written by an
+     * older server during the migration is not lost.
+     */
+    static void migrateGameState(Connection connection) throws SQLException {
+        String typeQuery = """
+                SELECT DATA_TYPE FROM INFORMATION_SCHEMA.COLUMNS
+                WHERE TABLE_SCHEMA = DATABASE() AND TABLE_NAME = 'Games' AND COLUMN_NAME = 'game_state'
+                """;
+        try (Statement stmt = connection.createStatement();
+             ResultSet rs = stmt.executeQuery(typeQuery)) {
+            if (rs.next() && rs.getString(1).toLowerCase().endsWith("text")) {
+                stmt.execute("ALTER TABLE Games MODIFY game_state BLOB");
+            }
+        }
+
+        String select = "SELECT game_id, game_state FROM Games WHERE game_state LIKE '{%'";
+        String update = "UPDATE Games SET game_state = ? WHERE game_id = ?";
+        try (Statement stmt = connection.createStatement();
+             ResultSet rs = stmt.executeQuery(select);
+             PreparedStatement write = connection.prepareStatement(update)) {
+            while (rs.next()) {
+                write.setBytes(1, GameCodec.encode(LegacyGameState.read(rs.getBytes("game_state"))));
+                write.setInt(2, rs.getInt("game_id"));
+                write.addBatch();
+            }
+            write.executeBatch();
+        }
+    }
+
+    /**
+     * Adds the GameMoves table and the columns that track it to a Games table
+     * that predates them. Existing games have no head_key, so the first update
+     * to each one writes a fresh snapshot and starts its move log there.
+     * <p>
+     * start_state holds the position after start_ply moves, where the move log
+     * begins. GameMoves holds the move that reached each later ply, game_state
+     * holds the position after snapshot_ply moves, and head_ply and head_key
+     * describe the latest stored position.
+     */
+    static void migrateMoveLog(Connection connection) throws SQLException {
+        addColumnIfMissing(connection, "snapshot_ply", "INT NOT NULL DEFAULT 0");
+        addColumnIfMissing(connection, "start_state", "BLOB");
+        addColumnIfMissing(connection, "start_ply", "INT NOT NULL DEFAULT 0");
+        addColumnIfMissing(connection, "head_ply", "INT NOT NULL DEFAULT 0");
+        addColumnIfMissing(connection, "head_key", "BIGINT");
+
+        // A SMALLINT holds a move without its flags: from, to and promotion
+        try (Statement stmt = connection.createStatement()) {
+            stmt.execute("""
+                    CREATE TABLE IF NOT EXISTS GameMoves (
+                        game_id INT NOT NULL,
+                        ply INT NOT NULL,
+                        move SMALLINT NOT NULL,
+                        PRIMARY KEY (game_id, ply),
+                        FOREIGN KEY (game_id) REFERENCES Games(game_id) ON DELETE CASCADE
+                    );
+                    """);
+        }
+    }
+
+    private static void addColumnIfMissing(Connection connection, String column, String definition)
+            throws SQLException {
+        String columnQuery = """
+                SELECT 1 FROM INFORMATION_SCHEMA.COLUMNS
+                WHERE TABLE_SCHEMA = DATABASE() AND TABLE_NAME = 'Games' AND COLUMN_NAME = ?
+                """;
+        try (PreparedStatement query = connection.prepareStatement(columnQuery)) {
+            query.setString(1, column);
+            try (ResultSet rs = query.executeQuery()) {
+                if (rs.next()) {
+                    return;
+                }
+            }
+        }
+        try (Statement stmt = connection.createStatement()) {
+            stmt.execute("ALTER TABLE Games ADD COLUMN " + column + " " + definition);
+        }
+    }
 }
@@ -4,6 +4,7 @@ import io.javalin.http.Context;
 import service.ClearService;
 import dataaccess.DataAccessException;
 import com.google.gson.Gson;
+import serialization.Serializer;
 import requestresult.ClearResult;
 
 import java.util.Map;
@@ -15,7 +16,7 @@ public class ClearHandler {
 
     public ClearHandler(ClearService clearService) {
         this.clearService = clearService;
-        this.gson = new Gson();
+        this.gson = Serializer.gson();
     }
 
     public void handle(Context ctx) {
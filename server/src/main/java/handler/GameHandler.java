@@ -1,6 +1,7 @@
 package handler;
 
 import com.google.gson.Gson;
+import serialization.Serializer;
 import io.javalin.http.Context;
 import requestresult.*;
 import service.GameService;
@@ -12,7 +13,7 @@ public class GameHandler {
 
     public GameHandler(GameService gameService) {
         this.gameService = gameService;
-        this.gson = new Gson();
+        this.gson = Serializer.gson();
     }
 
     // Create Game
@@ -93,6 +94,64 @@ public class GameHandler {
         }
     }
 
+    // Replay Game
+    public void replayGame(Context ctx) {
+        try {
+            String authToken = ctx.header("Authorization");
+            ReplayGameRequest request;
+            try {
+                String ply = ctx.queryParam("ply");
+                request = new ReplayGameRequest(Integer.valueOf(ctx.queryParam("gameID")),
+                        ply == null ? null : Integer.valueOf(ply), authToken);
+            } catch (NumberFormatException e) {
+                ctx.status(400).result(gson.toJson(new ReplayGameResult("Error: bad request")));
+                return;
+            }
+
+            ReplayGameResult result;
+            try {
+                result = gameService.replayGame(request);
+            } catch (Exception e) {
+                ctx.status(500).result(gson.toJson(new ReplayGameResult("Error: " + e.getMessage())));
+                return;
+            }
+
+            respondWithProperStatus(ctx, result);
+
+        } catch (Exception e) {
+            ctx.status(500).result(gson.toJson(new ReplayGameResult("Error: " + e.getMessage())));
+        }
+    }
+
+    // Hint
+    public void hint(Context ctx) {
+        try {
+            String authToken = ctx.header("Authorization");
+            HintRequest request;
+            try {
+                String millis = ctx.queryParam("millis");
+                request = new HintRequest(Integer.valueOf(ctx.queryParam("gameID")),
+                        millis == null ? null : Long.valueOf(millis), authToken);
+            } catch (NumberFormatException e) {
+                ctx.status(400).result(gson.toJson(new HintResult("Error: bad request")));
+                return;
+            }
+
+            HintResult result;
+            try {
+                result = gameService.hint(request);
+            } catch (Exception e) {
+                ctx.status(500).result(gson.toJson(new HintResult("Error: " + e.getMessage())));
+                return;
+            }
+
+            respondWithProperStatus(ctx, result);
+
+        } catch (Exception e) {
+            ctx.status(500).result(gson.toJson(new HintResult("Error: " + e.getMessage())));
+        }
+    }
+
     private void respondWithProperStatus(Context ctx, Object resultObj) {
         String json = gson.toJson(resultObj);
         ctx.contentType("application/json");
@@ -108,6 +167,12 @@ public class GameHandler {
             else if (resultObj instanceof JoinGameResult) {
                 message = ((JoinGameResult) resultObj).getMessage();
             }
+            else if (resultObj instanceof ReplayGameResult) {
+                message = ((ReplayGameResult) resultObj).getMessage();
+            }
+            else if (resultObj instanceof HintResult) {
+                message = ((HintResult) resultObj).getMessage();
+            }
         } catch (Exception ignored) {}
 
         if (message != null) {
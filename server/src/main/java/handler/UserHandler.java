@@ -5,6 +5,7 @@ import service.UserService;
 import requestresult.RegisterRequest;
 import requestresult.RegisterResult;
 import com.google.gson.Gson;
+import serialization.Serializer;
 import requestresult.LoginRequest;
 import requestresult.LoginResult;
 import requestresult.LogoutRequest;
@@ -17,7 +18,7 @@ public class UserHandler {
 
     public UserHandler(UserService userService) {
         this.userService = userService;
-        this.gson = new Gson();
+        this.gson = Serializer.gson();
     }
 
     public void handleRegister(Context ctx) {
@@ -0,0 +1,27 @@
+package requestresult;
+
+public class HintRequest {
+    private String authToken;
+    private Integer gameID;
+    private Long millis;
+
+    public HintRequest() {}
+
+    /**
+     * @param millis how long to search, or null for the server's default
+     */
+    public HintRequest(Integer gameID, Long millis, String authToken) {
+        this.gameID = gameID;
+        this.millis = millis;
+        this.authToken = authToken;
+    }
+
+    public Integer getGameID() { return gameID; }
+    public void setGameID(Integer gameID) { this.gameID = gameID; }
+
+    public Long getMillis() { return millis; }
+    public void setMillis(Long millis) { this.millis = millis; }
+
+    public String getAuthToken() { return authToken; }
+    public void setAuthToken(String authToken) { this.authToken = authToken; }
+}
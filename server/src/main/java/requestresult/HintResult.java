@@ -0,0 +1,38 @@
+package requestresult;
+
+import chess.ChessMove;
+
+public class HintResult {
+    private ChessMove move;
+    private Integer score;
+    private Integer depth;
+    private Long nodes;
+    private String message;
+
+    public HintResult() {}
+
+    /**
+     * @param move  null if the team to move has no legal move
+     * @param score centipawns from the point of view of the team to move
+     */
+    public HintResult(ChessMove move, int score, int depth, long nodes) {
+        this.move = move;
+        this.score = score;
+        this.depth = depth;
+        this.nodes = nodes;
+    }
+
+    public HintResult(String message) {
+        this.message = message;
+    }
+
+    public ChessMove getMove() { return move; }
+
+    public Integer getScore() { return score; }
+
+    public Integer getDepth() { return depth; }
+
+    public Long getNodes() { return nodes; }
+
+    public String getMessage() { return message; }
+}
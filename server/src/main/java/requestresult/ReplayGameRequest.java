@@ -0,0 +1,27 @@
+package requestresult;
+
+public class ReplayGameRequest {
+    private String authToken;
+    private Integer gameID;
+    private Integer ply;
+
+    public ReplayGameRequest() {}
+
+    /**
+     * @param ply the number of moves into the game, or null for its latest position
+     */
+    public ReplayGameRequest(Integer gameID, Integer ply, String authToken) {
+        this.gameID = gameID;
+        this.ply = ply;
+        this.authToken = authToken;
+    }
+
+    public Integer getGameID() { return gameID; }
+    public void setGameID(Integer gameID) { this.gameID = gameID; }
+
+    public Integer getPly() { return ply; }
+    public void setPly(Integer ply) { this.ply = ply; }
+
+    public String getAuthToken() { return authToken; }
+    public void setAuthToken(String authToken) { this.authToken = authToken; }
+}
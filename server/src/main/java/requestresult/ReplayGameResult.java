@@ -0,0 +1,47 @@
+package requestresult;
+
+import chess.ChessGame;
+import chess.ChessMove;
+
+import java.util.List;
+
+public class ReplayGameResult {
+    private Integer ply;
+    private Integer startPly;
+    private Integer endPly;
+    private ChessGame game;
+    private List<ChessMove> legalMoves;
+    private String message;
+
+    public ReplayGameResult() {}
+
+    public ReplayGameResult(int ply, int startPly, int endPly, ChessGame game, List<ChessMove> legalMoves) {
+        this.ply = ply;
+        this.startPly = startPly;
+        this.endPly = endPly;
+        this.game = game;
+        this.legalMoves = legalMoves;
+    }
+
+    public ReplayGameResult(String message) {
+        this.message = message;
+    }
+
+    public Integer getPly() { return ply; }
+
+    /**
+     * @return the earliest ply that can be replayed
+     */
+    public Integer getStartPly() { return startPly; }
+
+    /**
+     * @return the latest ply that can be replayed
+     */
+    public Integer getEndPly() { return endPly; }
+
+    public ChessGame getGame() { return game; }
+
+    public List<ChessMove> getLegalMoves() { return legalMoves; }
+
+    public String getMessage() { return message; }
+}
@@ -1,5 +1,11 @@
 package server;
 
+import chess.Evaluator;
+import chess.LegalMoveCache;
+import chess.NnueEvaluator;
+import chess.NnueWeights;
+import chess.PieceSquareEvaluator;
+import chess.TranspositionTable;
 import io.javalin.Javalin;
 import handler.ClearHandler;
 import handler.UserHandler;
@@ -9,10 +15,19 @@ import service.UserService;
 import service.GameService;
 import dataaccess.*;
 
+import java.io.IOException;
+import java.nio.file.Path;
 import java.sql.SQLException;
 
 public class Server {
 
+    /** Positions whose legal moves are kept, shared by every game on the server */
+    private static final int MOVE_CACHE_POSITIONS = 100_000;
+    /** Shared by every hint search on the server */
+    private static final long HINT_TABLE_BYTES = 64L << 20;
+    /** Names a network file for hints to use instead of piece-square tables */
+    private static final String NNUE_PROPERTY = "chess.nnue";
+
     private final Javalin javalin;
     private final DataAccess dataAccess;
 
@@ -26,6 +41,10 @@ public class Server {
 
         dataAccess = new MySqlDataAccess();
 
+        if (LegalMoveCache.installed() == null) {
+            LegalMoveCache.install(new LegalMoveCache(MOVE_CACHE_POSITIONS));
+        }
+
         javalin = Javalin.create(config -> config.staticFiles.add("web"));
 
         // Clear endpoint
@@ -41,11 +60,26 @@ public class Server {
         javalin.delete("/session", userHandler::handleLogout);
 
         // Game endpoints
-        var gameService = new GameService(dataAccess);
+        var gameService = new GameService(dataAccess, new TranspositionTable(HINT_TABLE_BYTES),
+                Runtime.getRuntime().availableProcessors(), hintEvaluator());
         var gameHandler = new GameHandler(gameService);
         javalin.post("/game", gameHandler::createGame);
         javalin.get("/game", gameHandler::listGames);
         javalin.put("/game", gameHandler::joinGame);
+        javalin.get("/game/replay", gameHandler::replayGame);
+        javalin.get("/game/hint", gameHandler::hint);
+    }
+
+    private static Evaluator hintEvaluator() {
+        String network = System.getProperty(NNUE_PROPERTY);
+        if (network == null) {
+            return new PieceSquareEvaluator();
+        }
+        try {
+            return new NnueEvaluator(NnueWeights.load(Path.of(network)));
+        } catch (IOException e) {
+            throw new RuntimeException("Failed to load network: " + e.getMessage(), e);
+        }
     }
 
     public int run(int desiredPort) {
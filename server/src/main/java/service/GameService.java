@@ -1,5 +1,13 @@
 package service;
 
+import chess.ChessGame;
+import chess.ChessMove;
+import chess.Evaluator;
+import chess.GameReplay;
+import chess.PieceSquareEvaluator;
+import chess.ParallelSearch;
+import chess.SearchResult;
+import chess.TranspositionTable;
 import dataaccess.DataAccess;
 import dataaccess.DataAccessException;
 import model.AuthData;
@@ -7,12 +15,55 @@ import model.GameData;
 import requestresult.*;
 
 import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
 
 public class GameService {
+
+    /** Hints search for this long unless asked for less, and never for longer */
+    public static final long MAX_HINT_MILLIS = 2000;
+    private static final long DEFAULT_HINT_TABLE_BYTES = 16 << 20;
+
     private final DataAccess dataAccess;
+    /** Allocated on the first hint when no table was passed in */
+    private volatile TranspositionTable hintTable;
+    private final Evaluator evaluator;
+    private final int searchThreads;
+    private final ExecutorService searchHelpers;
+    private final AtomicInteger activeHints = new AtomicInteger();
 
     public GameService(DataAccess dataAccess) {
+        this(dataAccess, null, 1);
+    }
+
+    /**
+     * @param hintTable     shared by every hint search, so positions analysed
+     *                      for one request speed up the next; null for a
+     *                      table of this service's own, made when first needed
+     * @param searchThreads the threads hint searches may use between them. A
+     *                      hint gets all of them when it is the only one
+     *                      running and an even share when several are.
+     */
+    public GameService(DataAccess dataAccess, TranspositionTable hintTable, int searchThreads) {
+        this(dataAccess, hintTable, searchThreads, new PieceSquareEvaluator());
+    }
+
+    /**
+     * @param evaluator scores positions for hint searches; used by every search
+     *                  thread at once, so it must be thread safe
+     */
+    public GameService(DataAccess dataAccess, TranspositionTable hintTable, int searchThreads,
+                       Evaluator evaluator) {
         this.dataAccess = dataAccess;
+        this.evaluator = evaluator;
+        this.hintTable = hintTable;
+        this.searchThreads = searchThreads;
+        this.searchHelpers = searchThreads == 1 ? null : Executors.newFixedThreadPool(searchThreads - 1, runnable -> {
+            Thread thread = new Thread(runnable, "hint-search");
+            thread.setDaemon(true);
+            return thread;
+        });
     }
 
     // Create Game
@@ -114,4 +165,94 @@ public class GameService {
             return new JoinGameResult("Error: unexpected failure - " + e.getMessage());
         }
     }
+
+    /**
+     * Seeks a game's replay to a ply, for stepping through a finished or
+     * ongoing game
+     */
+    public ReplayGameResult replayGame(ReplayGameRequest request) {
+        try {
+            if (request == null || request.getAuthToken() == null || request.getAuthToken().isBlank()) {
+                return new ReplayGameResult("Error: unauthorized");
+            }
+            if (!dataAccess.isValidAuthToken(request.getAuthToken())) {
+                return new ReplayGameResult("Error: unauthorized");
+            }
+            if (request.getGameID() == null) {
+                return new ReplayGameResult("Error: bad request");
+            }
+
+            GameReplay replay = dataAccess.getGameReplay(request.getGameID());
+            if (replay == null) {
+                return new ReplayGameResult("Error: bad request");
+            }
+            int ply = request.getPly() == null ? replay.getEndPly() : request.getPly();
+            if (ply < replay.getStartPly() || ply > replay.getEndPly()) {
+                return new ReplayGameResult("Error: bad request - ply must be from "
+                        + replay.getStartPly() + " to " + replay.getEndPly());
+            }
+
+            ChessGame game = replay.positionAt(ply);
+            List<ChessMove> legalMoves = game.legalMoveStream().toList();
+            return new ReplayGameResult(ply, replay.getStartPly(), replay.getEndPly(), game, legalMoves);
+
+        } catch (Exception e) {
+            return new ReplayGameResult("Error: unexpected failure - " + e.getMessage());
+        }
+    }
+
+    /**
+     * Searches the game's current position for the move to play, within the
+     * requested time up to {@link #MAX_HINT_MILLIS}
+     */
+    public HintResult hint(HintRequest request) {
+        try {
+            if (request == null || request.getAuthToken() == null || request.getAuthToken().isBlank()) {
+                return new HintResult("Error: unauthorized");
+            }
+            if (!dataAccess.isValidAuthToken(request.getAuthToken())) {
+                return new HintResult("Error: unauthorized");
+            }
+            if (request.getGameID() == null || request.getMillis() != null && request.getMillis() <= 0) {
+                return new HintResult("Error: bad request");
+            }
+
+            GameData data = dataAccess.getGameByID(request.getGameID());
+            if (data == null) {
+                return new HintResult("Error: bad request");
+            }
+            ChessGame game = data.game() == null ? new ChessGame() : data.game();
+            long millis = request.getMillis() == null ? MAX_HINT_MILLIS
+                    : Math.min(request.getMillis(), MAX_HINT_MILLIS);
+
+            int threads = Math.max(1, searchThreads / activeHints.incrementAndGet());
+            try {
+                SearchResult result = new ParallelSearch(hintTable(), evaluator, threads, searchHelpers)
+                        .search(game, millis);
+                return new HintResult(result.bestMove(), result.score(), result.depth(), result.nodes());
+            } finally {
+                activeHints.decrementAndGet();
+            }
+
+        } catch (Exception e) {
+            return new HintResult("Error: unexpected failure - " + e.getMessage());
+        }
+    }
+
+    /**
+     * The table is off-heap memory, so it is only made once a hint is asked for
+     */
+    private TranspositionTable hintTable() {
+        TranspositionTable table = hintTable;
+        if (table == null) {
+            synchronized (this) {
+                table = hintTable;
+                if (table == null) {
+                    table = new TranspositionTable(DEFAULT_HINT_TABLE_BYTES);
+                    hintTable = table;
+                }
+            }
+        }
+        return table;
+    }
 }
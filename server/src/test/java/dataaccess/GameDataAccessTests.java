@@ -1,5 +1,9 @@
 package dataaccess;
 
+import chess.ChessGame;
+import chess.ChessMove;
+import chess.ChessPosition;
+import chess.InvalidMoveException;
 import model.GameData;
 import org.junit.jupiter.api.*;
 import java.sql.*;
@@ -18,6 +22,7 @@ public class GameDataAccessTests {
         try (Connection conn = DatabaseManager.getConnection();
              Statement stmt = conn.createStatement()) {
 
+            stmt.executeUpdate("DROP TABLE IF EXISTS GameMoves");
             stmt.executeUpdate("DROP TABLE IF EXISTS Games");
 
             stmt.executeUpdate("""
@@ -29,6 +34,8 @@ public class GameDataAccessTests {
                 game_state TEXT
             );
         """);
+            SchemaInitializer.migrateGameState(conn);
+            SchemaInitializer.migrateMoveLog(conn);
 
         } catch (SQLException e) {
             throw new RuntimeException("Failed to set up database for tests", e);
@@ -130,4 +137,141 @@ public class GameDataAccessTests {
             dao.updateGame(null);
         }, "Updating null game should throw NullPointerException");
     }
+
+    // game_state migration tests
+    @Test
+    @DisplayName("Migration converts JSON game states from a TEXT column")
+    @Order(9)
+    public void migrationConvertsJsonGameStates() throws Exception {
+        String json = "{\"team\":\"BLACK\",\"board\":{\"board\":["
+                + "[null,null,null,null,{\"pieceColor\":\"WHITE\",\"type\":\"KING\"},null,null,null],"
+                + "[null,null,null,null,null,null,null,null],".repeat(6)
+                + "[null,null,null,null,{\"pieceColor\":\"BLACK\",\"type\":\"KING\"},null,null,null]"
+                + "]},\"turn\":2}";
+        try (Connection conn = DatabaseManager.getConnection();
+             Statement stmt = conn.createStatement()) {
+            stmt.executeUpdate("ALTER TABLE Games MODIFY game_state TEXT");
+            try (PreparedStatement insert = conn.prepareStatement(
+                    "INSERT INTO Games (game_id, game_name, game_state) VALUES (1, 'Old Game', ?)")) {
+                insert.setString(1, json);
+                insert.executeUpdate();
+            }
+            SchemaInitializer.migrateGameState(conn);
+        }
+
+        ChessGame game = dao.getGameByID(1).game();
+        Assertions.assertEquals(ChessGame.fromFen("4k3/8/8/8/8/8/8/4K3 b - - 0 1"), game);
+    }
+
+    // move log tests
+    @Test
+    @DisplayName("updateGame appends moves and loads the game back through its snapshots")
+    @Order(10)
+    public void updateGameAppendsMoves() throws Exception {
+        int gameID = dao.createGame("Long Game");
+        GameData data = dao.getGameByID(gameID);
+        ChessGame expected = new ChessGame();
+
+        // Knights out and back, one stored update per move, past two snapshots
+        String[] cycle = {"g1f3", "g8f6", "f3g1", "f6g8"};
+        int plies = 2 * MySqlDataAccess.SNAPSHOT_INTERVAL + 6;
+        for (int ply = 0; ply < plies; ply++) {
+            ChessGame game = data.game();
+            play(game, cycle[ply % cycle.length]);
+            play(expected, cycle[ply % cycle.length]);
+            dao.updateGame(data);
+            data = dao.getGameByID(gameID);
+        }
+
+        Assertions.assertEquals(expected, data.game());
+        Assertions.assertEquals(plies, data.game().getPly());
+        Assertions.assertEquals(plies, countMoves(gameID), "Every move should be logged once");
+        Assertions.assertEquals(expected, dao.listGames().get(0).game());
+    }
+
+    @Test
+    @DisplayName("updateGame replaces logged moves that were taken back")
+    @Order(11)
+    public void updateGameAfterTakeback() throws Exception {
+        int gameID = dao.createGame("Takeback");
+        GameData data = dao.getGameByID(gameID);
+        play(data.game(), "e2e4", "e7e5", "g1f3");
+        dao.updateGame(data);
+
+        data.game().unmakeMove();
+        play(data.game(), "d2d4");
+        dao.updateGame(data);
+
+        ChessGame expected = new ChessGame();
+        play(expected, "e2e4", "e7e5", "d2d4");
+        Assertions.assertEquals(expected, dao.getGameByID(gameID).game());
+        Assertions.assertEquals(3, countMoves(gameID));
+    }
+
+    @Test
+    @DisplayName("Reloaded games remember positions from before their snapshot")
+    @Order(12)
+    public void reloadKeepsRepetitions() throws Exception {
+        int gameID = dao.createGame("Repetition");
+        GameData data = dao.getGameByID(gameID);
+        ChessGame expected = new ChessGame();
+
+        // Every position repeats, so threefold repetition holds from ply 8 on,
+        // including just after each snapshot boundary
+        String[] cycle = {"b1c3", "b8c6", "c3b1", "c6b8"};
+        int plies = 2 * MySqlDataAccess.SNAPSHOT_INTERVAL + 6;
+        for (int ply = 0; ply < plies; ply++) {
+            play(data.game(), cycle[ply % cycle.length]);
+            play(expected, cycle[ply % cycle.length]);
+            dao.updateGame(data);
+            data = dao.getGameByID(gameID);
+            Assertions.assertEquals(expected.isThreefoldRepetition(), data.game().isThreefoldRepetition(),
+                    "After ply " + (ply + 1));
+            Assertions.assertEquals(expected.getStatus(), data.game().getStatus(), "After ply " + (ply + 1));
+        }
+        Assertions.assertTrue(data.game().isThreefoldRepetition());
+        Assertions.assertTrue(dao.listGames().stream()
+                .filter(game -> game.gameID() == gameID)
+                .allMatch(game -> game.game().isThreefoldRepetition()));
+    }
+
+    @Test
+    @DisplayName("Replays are built once and rebuilt after an update")
+    @Order(13)
+    public void replayCached() throws Exception {
+        int gameID = dao.createGame("Replay");
+        GameData data = dao.getGameByID(gameID);
+        play(data.game(), "e2e4", "e7e5");
+        dao.updateGame(data);
+
+        var replay = dao.getGameReplay(gameID);
+        Assertions.assertSame(replay, dao.getGameReplay(gameID));
+        Assertions.assertEquals(2, replay.getEndPly());
+
+        play(data.game(), "g1f3");
+        dao.updateGame(data);
+        var updated = dao.getGameReplay(gameID);
+        Assertions.assertNotSame(replay, updated);
+        Assertions.assertEquals(3, updated.getEndPly());
+        Assertions.assertEquals(data.game(), updated.positionAt(3));
+    }
+
+    private static int countMoves(int gameID) throws SQLException, DataAccessException {
+        try (Connection conn = DatabaseManager.getConnection();
+             PreparedStatement stmt = conn.prepareStatement("SELECT COUNT(*) FROM GameMoves WHERE game_id = ?")) {
+            stmt.setInt(1, gameID);
+            try (ResultSet rs = stmt.executeQuery()) {
+                rs.next();
+                return rs.getInt(1);
+            }
+        }
+    }
+
+    private static void play(ChessGame game, String... moves) throws InvalidMoveException {
+        for (String move : moves) {
+            game.makeMove(new ChessMove(
+                    new ChessPosition(move.charAt(1) - '0', move.charAt(0) - 'a' + 1),
+                    new ChessPosition(move.charAt(3) - '0', move.charAt(2) - 'a' + 1), null));
+        }
+    }
 }
@@ -1,6 +1,7 @@
 package passoff.server;
 
 import com.google.gson.GsonBuilder;
+import serialization.Serializer;
 
 public class TestFactory {
 
@@ -32,9 +33,7 @@ public class TestFactory {
          * If you would like to change the way the web socket test cases serialize
          * or deserialize chess objects like ChessMove, you may add type adapters here.
          */
-        GsonBuilder builder = new GsonBuilder();
-        // builder.registerTypeAdapter(ChessMove.class, /*type adapter or json serializer */);
-        return builder;
+        return Serializer.gson().newBuilder();
     }
 
 }
@@ -3,6 +3,9 @@ package service;
 import dataaccess.InMemoryDataAccess;
 import dataaccess.DataAccessException;
 
+import chess.ChessGame;
+import chess.ChessMove;
+import chess.ChessPosition;
 import model.GameData;
 import org.junit.jupiter.api.*;
 import requestresult.*;
@@ -247,4 +250,65 @@ public class GameServiceTest {
         assertNotNull(joinRes2.getMessage());
         assertTrue(joinRes2.getMessage().toLowerCase().contains("already taken"));
     }
+
+    // Replay Game Tests
+    @Test
+    @Order(14)
+    @DisplayName("Replay game seeks to a ply")
+    public void replayGameSeeksToPly() throws Exception {
+        userService.register(new RegisterRequest("viewer", "pw", "v@mail.com"));
+        String auth = userService.login(new LoginRequest("viewer", "pw")).getAuthToken();
+        int gameID = gameService.createGame(new CreateGameRequest("Replayed", auth)).getGameID();
+
+        ChessGame game = new ChessGame();
+        game.makeMove(new ChessMove(new ChessPosition(2, 5), new ChessPosition(4, 5), null));
+        game.makeMove(new ChessMove(new ChessPosition(7, 5), new ChessPosition(5, 5), null));
+        game.makeMove(new ChessMove(new ChessPosition(1, 7), new ChessPosition(3, 6), null));
+        inMemoryDataAccess.updateGame(new GameData(gameID, null, null, "Replayed", game));
+
+        ReplayGameResult result = gameService.replayGame(new ReplayGameRequest(gameID, 1, auth));
+        assertNull(result.getMessage());
+        assertEquals(1, result.getPly());
+        assertEquals(3, result.getEndPly());
+        assertEquals(ChessGame.fromFen("rnbqkbnr/pppppppp/8/8/4P3/8/PPPP1PPP/RNBQKBNR b KQkq - 0 1"), result.getGame());
+        assertEquals(20, result.getLegalMoves().size());
+
+        ReplayGameResult latest = gameService.replayGame(new ReplayGameRequest(gameID, null, auth));
+        assertEquals(game, latest.getGame());
+    }
+
+    @Test
+    @Order(15)
+    @DisplayName("Replay game rejects a ply outside the game")
+    public void replayGameBadPly() {
+        userService.register(new RegisterRequest("viewer2", "pw", "v2@mail.com"));
+        String auth = userService.login(new LoginRequest("viewer2", "pw")).getAuthToken();
+        int gameID = gameService.createGame(new CreateGameRequest("Short", auth)).getGameID();
+
+        ReplayGameResult result = gameService.replayGame(new ReplayGameRequest(gameID, 5, auth));
+        assertNotNull(result.getMessage());
+        assertTrue(result.getMessage().toLowerCase().contains("bad request"));
+
+        ReplayGameResult unauthorized = gameService.replayGame(new ReplayGameRequest(gameID, 0, "not a token"));
+        assertTrue(unauthorized.getMessage().toLowerCase().contains("unauthorized"));
+    }
+
+    // Hint Tests
+    @Test
+    @Order(16)
+    @DisplayName("Hint finds the winning move")
+    public void hintFindsMate() {
+        userService.register(new RegisterRequest("student", "pw", "s@mail.com"));
+        String auth = userService.login(new LoginRequest("student", "pw")).getAuthToken();
+        int gameID = gameService.createGame(new CreateGameRequest("Endgame", auth)).getGameID();
+        ChessGame game = ChessGame.fromFen("6k1/5ppp/8/8/8/8/8/R5K1 w - - 0 1");
+        inMemoryDataAccess.updateGame(new GameData(gameID, null, null, "Endgame", game));
+
+        HintResult result = gameService.hint(new HintRequest(gameID, 500L, auth));
+        assertNull(result.getMessage());
+        assertEquals(new ChessMove(new ChessPosition(1, 1), new ChessPosition(8, 1), null), result.getMove());
+
+        HintResult badRequest = gameService.hint(new HintRequest(gameID, -1L, auth));
+        assertTrue(badRequest.getMessage().toLowerCase().contains("bad request"));
+    }
 }
@@ -0,0 +1,69 @@
+package chess;
+
+import java.util.Arrays;
+
+/**
+ * Castling rights packed into the low four bits of an {@code int}. A right is
+ * lost for good once its king or rook moves or the rook is captured.
+ */
+public final class CastlingRights {
+
+    public static final int NONE = 0;
+    public static final int WHITE_KINGSIDE = 1;
+    public static final int WHITE_QUEENSIDE = 2;
+    public static final int BLACK_KINGSIDE = 4;
+    public static final int BLACK_QUEENSIDE = 8;
+    public static final int ALL = 15;
+
+    static final int WHITE_KING_HOME = 4;
+    static final int BLACK_KING_HOME = 60;
+
+    /** Rights that survive a move touching each square, as a mask to AND with */
+    private static final int[] KEEP = new int[64];
+
+    static {
+        Arrays.fill(KEEP, ALL);
+        KEEP[WHITE_KING_HOME] = ALL & ~(WHITE_KINGSIDE | WHITE_QUEENSIDE);
+        KEEP[7] = ALL & ~WHITE_KINGSIDE;
+        KEEP[0] = ALL & ~WHITE_QUEENSIDE;
+        KEEP[BLACK_KING_HOME] = ALL & ~(BLACK_KINGSIDE | BLACK_QUEENSIDE);
+        KEEP[63] = ALL & ~BLACK_KINGSIDE;
+        KEEP[56] = ALL & ~BLACK_QUEENSIDE;
+    }
+
+    private CastlingRights() {
+    }
+
+    /**
+     * @return the rights left after a move from one square to another
+     */
+    static int afterMove(int rights, int from, int to) {
+        return rights & KEEP[from] & KEEP[to];
+    }
+
+    /**
+     * @return the rights of the given team only
+     */
+    static int of(int rights, int color) {
+        return rights & (color == 0 ? WHITE_KINGSIDE | WHITE_QUEENSIDE : BLACK_KINGSIDE | BLACK_QUEENSIDE);
+    }
+
+    /**
+     * Infers rights from piece placement alone, assuming any king and rook still on
+     * their starting squares have not moved. Used when a board is set directly.
+     */
+    public static int fromBoard(ChessBoard board) {
+        int rights = NONE;
+        long whiteRooks = board.pieces(ChessGame.TeamColor.WHITE, ChessPiece.PieceType.ROOK);
+        long blackRooks = board.pieces(ChessGame.TeamColor.BLACK, ChessPiece.PieceType.ROOK);
+        if ((board.pieces(ChessGame.TeamColor.WHITE, ChessPiece.PieceType.KING) & (1L << WHITE_KING_HOME)) != 0) {
+            rights |= (whiteRooks & (1L << 7)) != 0 ? WHITE_KINGSIDE : 0;
+            rights |= (whiteRooks & 1L) != 0 ? WHITE_QUEENSIDE : 0;
+        }
+        if ((board.pieces(ChessGame.TeamColor.BLACK, ChessPiece.PieceType.KING) & (1L << BLACK_KING_HOME)) != 0) {
+            rights |= (blackRooks & (1L << 63)) != 0 ? BLACK_KINGSIDE : 0;
+            rights |= (blackRooks & (1L << 56)) != 0 ? BLACK_QUEENSIDE : 0;
+        }
+        return rights;
+    }
+}
@@ -5,18 +5,85 @@ import java.util.Arrays;
 /**
  * A chessboard that can hold and rearrange chess pieces.
  * <p>
+ * Pieces are stored as bitboards: one {@code long} per color and piece type,
+ * where bit {@code (row - 1) * 8 + (column - 1)} is set when that square holds
+ * the piece. Per-color occupancy masks are kept alongside so that move
+ * generation and equality can work on whole 64-bit masks.
+ * <p>
+ * The board also keeps a Zobrist key of its pieces, updated with one XOR per
+ * piece added or removed. Equal boards always have equal keys, so hashing is
+ * free and comparing two boards usually stops at the key.
+ * <p>
+ * In the same way it keeps the material and piece-square sums of its pieces
+ * for the midgame and the endgame, and the game phase that blends them, so
+ * {@link PieceSquareEvaluator} scores a position with a few arithmetic
+ * operations. Evaluators that keep sums of their own, such as
+ * {@link NnueEvaluator}, register a {@link PieceListener} instead.
+ * <p>
  * Note: You can add to this class, but you may not alter
  * signature of the existing methods.
  */
 public class ChessBoard {
 
-    private ChessPiece[][] board = new ChessPiece[8][8];
+    static final int PIECE_TYPES = ChessPiece.PieceType.values().length;
+
+    private long[] pieces = new long[2 * PIECE_TYPES];
+    private long[] occupancy = new long[2];
+    private long key;
+    /** White's sums minus Black's, from {@link PieceSquareTables} */
+    private int midgame;
+    private int endgame;
+    private int phase;
+    /** Told of every piece added or removed; not copied with the board */
+    private PieceListener listener;
 
     public ChessBoard() {
     }
 
+    /**
+     * Copies another board
+     *
+     * @param other the board to copy
+     */
+    public ChessBoard(ChessBoard other) {
+        this.pieces = other.pieces.clone();
+        this.occupancy = other.occupancy.clone();
+        this.key = other.key;
+        this.midgame = other.midgame;
+        this.endgame = other.endgame;
+        this.phase = other.phase;
+    }
+
+    /**
+     * Reads a board from the piece placement field of Forsyth-Edwards Notation,
+     * such as {@code rnbqkbnr/pppppppp/8/8/8/8/PPPPPPPP/RNBQKBNR}. Any fields
+     * after the placement are ignored.
+     *
+     * @throws IllegalArgumentException if the placement is not valid
+     */
+    public static ChessBoard fromFen(CharSequence fen) {
+        return Fen.parseBoard(fen);
+    }
+
+    /**
+     * @return the piece placement field of Forsyth-Edwards Notation
+     */
+    public String toFen() {
+        return Fen.format(this);
+    }
+
+    /**
+     * Builds an array-of-pieces view of the board. The array is a fresh copy and
+     * is not backed by the board, so changes to it are not reflected here.
+     *
+     * @return the pieces on the board, indexed by [row - 1][column - 1]
+     */
     public ChessPiece[][] getBoard() {
-        return board;
+        ChessPiece[][] view = new ChessPiece[8][8];
+        for (int square = 0; square < 64; square++) {
+            view[square >>> 3][square & 7] = pieceAt(square);
+        }
+        return view;
     }
 
     /**
@@ -26,11 +93,15 @@ public class ChessBoard {
      * @param piece    the piece to add
      */
     public void addPiece(ChessPosition position, ChessPiece piece) {
-        board[position.getRow()-1][position.getColumn()-1] = piece;
+        int square = squareOf(position);
+        clearSquare(square);
+        if (piece != null) {
+            setSquare(square, piece.getTeamColor(), piece.getPieceType());
+        }
     }
 
     public void removePiece(ChessPosition position) {
-        board[position.getRow()-1][position.getColumn()-1] = null;
+        clearSquare(squareOf(position));
     }
 
     /**
@@ -41,26 +112,104 @@ public class ChessBoard {
      * position
      */
     public ChessPiece getPiece(ChessPosition position) {
-        return board[position.getRow()-1][position.getColumn()-1];
+        return pieceAt(squareOf(position));
     }
 
     public boolean inBounds(int row, int col) {
         return row >= 1 && row <= 8 && col >= 1 && col <= 8;
     }
 
+    /**
+     * @param color the team whose pieces to return
+     * @param type  the kind of piece to return
+     * @return a mask with one bit set for every square holding that piece
+     */
+    public long pieces(ChessGame.TeamColor color, ChessPiece.PieceType type) {
+        return pieces[index(color, type)];
+    }
+
+    /**
+     * @param color the team whose pieces to return
+     * @return a mask with one bit set for every square holding a piece of that team
+     */
+    public long occupancy(ChessGame.TeamColor color) {
+        return occupancy[color.ordinal()];
+    }
+
+    /**
+     * @return a mask with one bit set for every occupied square
+     */
+    public long occupancy() {
+        return occupancy[0] | occupancy[1];
+    }
+
+    /**
+     * @return the Zobrist key of the pieces on the board. It does not include the
+     * side to move; see {@link ChessGame#zobristKey()} for the full position key.
+     */
+    public long zobristKey() {
+        return key;
+    }
+
+    /**
+     * The king bitboard is maintained as pieces are added and removed, so this is
+     * a single bit scan rather than a search of the board.
+     *
+     * @return the square of the team's king, or -1 if it has none. With several
+     * kings on the board, the one closest to the bottom-left is returned.
+     */
+    public int kingSquare(ChessGame.TeamColor color) {
+        long kings = pieces[index(color, ChessPiece.PieceType.KING)];
+        return kings == 0 ? -1 : Long.numberOfTrailingZeros(kings);
+    }
+
+    /**
+     * Checks whether any piece of the attacking team could capture on the position.
+     * Rather than generating the attacking team's moves, this probes outward from
+     * the square: knight jumps, pawn diagonals, king steps and sliding rays.
+     *
+     * @param position the square to test
+     * @param attacker the team doing the attacking
+     * @return whether the square is attacked
+     */
+    public boolean isAttacked(ChessPosition position, ChessGame.TeamColor attacker) {
+        return isAttacked(squareOf(position), attacker.ordinal());
+    }
+
+    boolean isAttacked(int square, int attacker) {
+        return attackersOf(square, attacker, occupancy()) != 0;
+    }
+
+    /**
+     * @param occupied the blockers to use for sliding pieces, so callers can see
+     *                 through pieces that are about to move
+     * @return a mask of the attacker's pieces that attack the square
+     */
+    long attackersOf(int square, int attacker, long occupied) {
+        int base = attacker * PIECE_TYPES;
+        long queens = pieces[base + ChessPiece.PieceType.QUEEN.ordinal()];
+        long rooks = pieces[base + ChessPiece.PieceType.ROOK.ordinal()] | queens;
+        long bishops = pieces[base + ChessPiece.PieceType.BISHOP.ordinal()] | queens;
+        return (Attacks.pawn(attacker ^ 1, square) & pieces[base + ChessPiece.PieceType.PAWN.ordinal()])
+                | (Attacks.knight(square) & pieces[base + ChessPiece.PieceType.KNIGHT.ordinal()])
+                | (Attacks.king(square) & pieces[base + ChessPiece.PieceType.KING.ordinal()])
+                | (Attacks.bishop(square, occupied) & bishops)
+                | (Attacks.rook(square, occupied) & rooks);
+    }
+
     /**
      * Sets the board to the default starting board
      * (How the game of chess normally starts)
      */
     public void resetBoard() {
-        board = new ChessPiece[8][8];
+        clear();
 
         // Pawns
         for (int col = 1; col <= 8; col++) {
             addPiece(new ChessPosition(2, col),
-                    new ChessPiece(ChessGame.TeamColor.WHITE, ChessPiece.PieceType.PAWN));
+                    ChessPiece.of(ChessGame.TeamColor.WHITE, ChessPiece.PieceType.PAWN));
             addPiece(new ChessPosition(7, col),
-                    new ChessPiece(ChessGame.TeamColor.BLACK, ChessPiece.PieceType.PAWN));
+                    ChessPiece.of(ChessGame.TeamColor.BLACK, ChessPiece.PieceType.PAWN));
         }
 
         setupBackRank(1, ChessGame.TeamColor.WHITE);
@@ -79,16 +228,150 @@ public class ChessBoard {
                 ChessPiece.PieceType.ROOK,
         };
         for (int col = 1; col <= 8; col++) {
-            addPiece(new ChessPosition(row, col), new ChessPiece(color, order[col - 1]));
+            addPiece(new ChessPosition(row, col), ChessPiece.of(color, order[col - 1]));
+        }
+    }
+
+    // Square-indexed access, used by move generation
+
+    long pieces(int color, int type) {
+        return pieces[color * PIECE_TYPES + type];
+    }
+
+    long occupancy(int color) {
+        return occupancy[color];
+    }
+
+    /**
+     * @return the piece on the square as color * 6 + type ordinal, or -1 if it is empty
+     */
+    int pieceCodeAt(int square) {
+        long bit = 1L << square;
+        int base;
+        if ((occupancy[0] & bit) != 0) {
+            base = 0;
+        } else if ((occupancy[1] & bit) != 0) {
+            base = PIECE_TYPES;
+        } else {
+            return -1;
+        }
+        for (int type = 0; type < PIECE_TYPES; type++) {
+            if ((pieces[base + type] & bit) != 0) {
+                return base + type;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * @return the piece on the square, or null if it is empty
+     */
+    ChessPiece pieceAt(int square) {
+        int code = pieceCodeAt(square);
+        return code < 0 ? null : ChessPiece.of(code / PIECE_TYPES, code % PIECE_TYPES);
+    }
+
+    void setSquare(int square, ChessGame.TeamColor color, ChessPiece.PieceType type) {
+        setSquare(square, index(color, type));
+    }
+
+    /**
+     * Puts a piece on an empty square
+     *
+     * @param code the piece as color * PIECE_TYPES + type ordinal
+     */
+    void setSquare(int square, int code) {
+        long bit = 1L << square;
+        pieces[code] |= bit;
+        occupancy[code / PIECE_TYPES] |= bit;
+        key ^= Zobrist.piece(code, square);
+        midgame += PieceSquareTables.midgame(code, square);
+        endgame += PieceSquareTables.endgame(code, square);
+        phase += PieceSquareTables.phase(code);
+        if (listener != null) {
+            listener.pieceAdded(square, code);
         }
     }
 
+    void clearSquare(int square) {
+        int code = pieceCodeAt(square);
+        if (code < 0) {
+            return;
+        }
+        long keep = ~(1L << square);
+        pieces[code] &= keep;
+        occupancy[code / PIECE_TYPES] &= keep;
+        key ^= Zobrist.piece(code, square);
+        midgame -= PieceSquareTables.midgame(code, square);
+        endgame -= PieceSquareTables.endgame(code, square);
+        phase -= PieceSquareTables.phase(code);
+        if (listener != null) {
+            listener.pieceRemoved(square, code);
+        }
+    }
+
+    void clear() {
+        if (listener != null) {
+            for (long occupied = occupancy(); occupied != 0; occupied &= occupied - 1) {
+                int square = Long.numberOfTrailingZeros(occupied);
+                listener.pieceRemoved(square, pieceCodeAt(square));
+            }
+        }
+        Arrays.fill(pieces, 0L);
+        Arrays.fill(occupancy, 0L);
+        key = 0;
+        midgame = 0;
+        endgame = 0;
+        phase = 0;
+    }
+
+    PieceListener listener() {
+        return listener;
+    }
+
+    /**
+     * @param listener told of every piece added to or removed from this board
+     *                 from now on, replacing any listener before it; null for
+     *                 none
+     */
+    void setListener(PieceListener listener) {
+        this.listener = listener;
+    }
+
+    /**
+     * @return the midgame and endgame piece-square scores blended by the game
+     * phase, in centipawns from White's side. Promotions can raise the phase
+     * past {@link PieceSquareTables#MAX_PHASE}, which counts as a midgame.
+     */
+    int pieceSquareScore() {
+        int midgamePhase = Math.min(phase, PieceSquareTables.MAX_PHASE);
+        return (midgame * midgamePhase + endgame * (PieceSquareTables.MAX_PHASE - midgamePhase))
+                / PieceSquareTables.MAX_PHASE;
+    }
+
+    static int squareOf(ChessPosition position) {
+        return (position.getRow() - 1) * 8 + (position.getColumn() - 1);
+    }
+
+    private static int index(ChessGame.TeamColor color, ChessPiece.PieceType type) {
+        return color.ordinal() * PIECE_TYPES + type.ordinal();
+    }
+
 
     @Override
     public String toString() {
-        return "ChessBoard{" +
-                "board=" + Arrays.toString(board) +
-                '}';
+        StringBuilder sb = new StringBuilder("ChessBoard{board=");
+        for (int row = 8; row >= 1; row--) {
+            sb.append('|');
+            for (int col = 1; col <= 8; col++) {
+                ChessPiece piece = pieceAt((row - 1) * 8 + col - 1);
+                sb.append(piece == null ? ' ' : piece.toChar()).append('|');
+            }
+            if (row > 1) {
+                sb.append('/');
+            }
+        }
+        return sb.append('}').toString();
     }
 
     @Override
@@ -99,11 +382,11 @@ public class ChessBoard {
         if (!(o instanceof ChessBoard that)) {
             return false;
         }
-        return Arrays.deepEquals(getBoard(), that.getBoard());
+        return key == that.key && Arrays.equals(pieces, that.pieces);
     }
 
     @Override
     public int hashCode() {
-        return Arrays.deepHashCode(getBoard());
+        return Long.hashCode(key);
     }
 }
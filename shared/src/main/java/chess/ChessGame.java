@@ -1,6 +1,8 @@
 package chess;
 
 import java.util.*;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
 /**
  * For a class that can manage a chess game, making moves on a board
@@ -10,18 +12,212 @@ public class ChessGame {
     private TeamColor team;
     private ChessBoard board;
     private int turn = 1;
+    private int castlingRights = CastlingRights.ALL;
+    private int enPassantSquare = -1;
+    private int halfmoveClock;
+    private transient volatile PositionSnapshot snapshot;
+
+    /**
+     * One entry per move played, holding what the move cannot recover by itself:
+     * <pre>
+     *   bits  0-18  the {@link PackedMove}
+     *   bits 19-22  the captured piece code + 1, or 0 for none or en passant
+     *   bits 23-26  castling rights before the move
+     *   bits 27-33  en passant square before the move + 1, or 0 for none
+     *   bits 34-49  halfmove clock before the move
+     * </pre>
+     */
+    private transient long[] undoStack = new long[64];
+    /** The Zobrist key of the position before each move on the undo stack */
+    private transient long[] keyHistory = new long[64];
+    private transient int undoSize;
+    /** How many times the current position has occurred, counted after each move */
+    private transient int repetitions = 1;
+    private transient GameStatus status;
+    /** The Zobrist key of the position the status was computed for */
+    private transient long statusKey;
 
     public ChessGame() {
         this.team = TeamColor.WHITE;
         this.board = new ChessBoard();
         this.board.resetBoard();
+        publish();
+    }
+
+    /**
+     * Copies another game, including its board, so the copy can be played
+     * independently
+     *
+     * @param other the game to copy
+     */
+    public ChessGame(ChessGame other) {
+        this.team = other.team;
+        this.board = new ChessBoard(other.board);
+        this.turn = other.turn;
+        this.castlingRights = other.castlingRights;
+        this.enPassantSquare = other.enPassantSquare;
+        this.halfmoveClock = other.halfmoveClock;
+        this.snapshot = other.snapshot;
+        this.repetitions = other.repetitions;
+        this.undoStack = other.undoStack.clone();
+        this.keyHistory = other.keyHistory.clone();
+        this.undoSize = other.undoSize;
+    }
+
+    ChessGame(ChessBoard board, TeamColor team, int castlingRights, int enPassantSquare) {
+        this(board, team, castlingRights, enPassantSquare, 0, 1);
+    }
+
+    ChessGame(ChessBoard board, TeamColor team, int castlingRights, int enPassantSquare, int halfmoveClock,
+              int turn) {
+        this.team = team;
+        this.board = board;
+        this.castlingRights = castlingRights;
+        this.enPassantSquare = enPassantSquare;
+        this.halfmoveClock = halfmoveClock;
+        this.turn = turn;
+        publish();
+    }
+
+    /**
+     * Reads a game from Forsyth-Edwards Notation, such as
+     * {@code rnbqkbnr/pppppppp/8/8/8/8/PPPPPPPP/RNBQKBNR w KQkq - 0 1}. The
+     * halfmove clock and fullmove number may be left off.
+     *
+     * @throws IllegalArgumentException if the text is not valid FEN
+     */
+    public static ChessGame fromFen(CharSequence fen) {
+        return Fen.parseGame(fen);
+    }
+
+    /**
+     * @return the position in Forsyth-Edwards Notation. The en passant square is
+     * only written when a pawn can actually capture there.
+     */
+    public String toFen() {
+        return Fen.format(this, halfmoveClock, (turn - 1) / 2 + 1);
     }
 
     public TeamColor getTeamTurn() { return team; }
-    public void setTeamTurn(TeamColor team) { this.team = team; }
-    public void setBoard(ChessBoard board) { this.board = board; }
+
+    /**
+     * @return the number of moves played plus one, counting both teams
+     */
+    int turn() { return turn; }
+
+    /**
+     * @return the number of moves played by both teams since the start of the game
+     */
+    public int getPly() { return turn - 1; }
+
+    /**
+     * @return the packed moves that {@link #unmakeMove()} can take back, oldest
+     * first, which are the moves played since the game was created or its board
+     * or turn last replaced
+     */
+    public int[] getMoveHistory() {
+        int[] moves = new int[undoSize];
+        for (int i = 0; i < undoSize; i++) {
+            moves[i] = (int) undoStack[i] & 0x7FFFF;
+        }
+        return moves;
+    }
+
+    /**
+     * @return a replay of the moves in {@link #getMoveHistory()}, from the
+     * position before the first of them
+     */
+    public GameReplay replay() {
+        ChessGame start = new ChessGame(this);
+        while (start.undoSize > 0) {
+            start.retractMove();
+        }
+        return new GameReplay(start, getMoveHistory());
+    }
+
+    public void setTeamTurn(TeamColor team) {
+        this.team = team;
+        this.enPassantSquare = -1;
+        this.undoSize = 0;
+        this.repetitions = 1;
+        this.status = null;
+        publish();
+    }
+
+    /**
+     * Replaces the board. Kings and rooks found on their starting squares are
+     * assumed not to have moved, so they keep their castling rights.
+     */
+    public void setBoard(ChessBoard board) {
+        this.board = board;
+        this.castlingRights = CastlingRights.fromBoard(board);
+        this.enPassantSquare = -1;
+        this.halfmoveClock = 0;
+        this.undoSize = 0;
+        this.repetitions = 1;
+        this.status = null;
+        publish();
+    }
+
     public ChessBoard getBoard() { return board; }
 
+    /**
+     * @return the {@link CastlingRights} still available to both teams
+     */
+    public int getCastlingRights() { return castlingRights; }
+
+    /**
+     * @return the square the team to move may capture onto en passant, or null
+     */
+    public ChessPosition getEnPassantPosition() {
+        return enPassantSquare < 0 ? null : ChessPosition.ofSquare(enPassantSquare);
+    }
+
+    /**
+     * @return the number of moves since the last capture or pawn move
+     */
+    public int getHalfmoveClock() { return halfmoveClock; }
+
+    /**
+     * Counted once per move, so this is a constant time check
+     *
+     * @return true if the current position has occurred at least three times
+     * with the same team to move, castling rights and en passant square
+     */
+    public boolean isThreefoldRepetition() { return repetitions >= 3; }
+
+    /**
+     * @return true if fifty moves by each team have passed without a capture or
+     * pawn move. A checkmate on the last of them still takes precedence.
+     */
+    public boolean isFiftyMoveRule() { return halfmoveClock >= 100; }
+
+    /**
+     * Returns the position as of the last move, or the last call to setBoard or
+     * setTeamTurn. It is safe to call from any thread while another thread plays
+     * moves, and changes made directly to {@link #getBoard()} do not show in it.
+     *
+     * @return an immutable copy of the current position
+     */
+    public PositionSnapshot snapshot() {
+        return snapshot;
+    }
+
+    private void publish() {
+        snapshot = new PositionSnapshot(board, team, castlingRights, enPassantSquare);
+    }
+
+    /**
+     * The board's key is maintained as pieces move, so this combines it with the
+     * side to move, castling rights and en passant square in constant time.
+     *
+     * @return the Zobrist key of the full position
+     */
+    public long zobristKey() {
+        return board.zobristKey() ^ Zobrist.side(team) ^ Zobrist.castling(castlingRights)
+                ^ Zobrist.enPassant(enPassantSquare);
+    }
+
     @Override
     public boolean equals(Object o) {
         if (this == o) {
@@ -30,11 +226,13 @@ public class ChessGame {
         if (!(o instanceof ChessGame other)) {
             return false;
         }
-        return team == other.team && Objects.equals(board, other.board);
+        return zobristKey() == other.zobristKey() && team == other.team
+                && castlingRights == other.castlingRights && enPassantSquare == other.enPassantSquare
+                && Objects.equals(board, other.board);
     }
 
     @Override
-    public int hashCode() { return Objects.hash(team, board); }
+    public int hashCode() { return Long.hashCode(zobristKey()); }
 
     @Override
     public String toString() {
@@ -50,19 +248,99 @@ public class ChessGame {
             return null;
         }
 
-        Set<ChessMove> validMoves = new HashSet<>();
-        for (ChessMove move : piece.pieceMoves(board, start)) {
-            ChessPiece captured = board.getPiece(move.getEndPosition());
-            testMove(move, piece);
-            boolean kingInCheck = isInCheck(piece.getTeamColor());
-            undoMove(move, piece, captured);
-            if (!kingInCheck) {
-                validMoves.add(move);
-            }
+        MoveList moves = legalMovesFrom(piece.getTeamColor(), ChessBoard.squareOf(start));
+        List<ChessMove> validMoves = new ArrayList<>(moves.size());
+        for (int i = 0; i < moves.size(); i++) {
+            validMoves.add(PackedMove.toChessMove(moves.get(i)));
         }
         return validMoves;
     }
 
+    /**
+     * Lists the team's legal moves from one square, from the installed
+     * {@link LegalMoveCache} when the team is the one to move
+     */
+    private MoveList legalMovesFrom(TeamColor teamColor, int from) {
+        MoveList moves = new MoveList();
+        LegalMoveCache cache = LegalMoveCache.installed();
+        if (cache == null || teamColor != team) {
+            legalMoves(teamColor, 1L << from, moves);
+            return moves;
+        }
+        for (int move : cache.legalMoves(this)) {
+            if (PackedMove.from(move) == from) {
+                moves.add(move);
+            }
+        }
+        return moves;
+    }
+
+    /**
+     * Generates the legal moves of the team to move one piece at a time, as they
+     * are asked for. The game must not change while the iterator is in use.
+     */
+    public Iterator<ChessMove> legalMoveIterator() {
+        LegalMoveIterator packed = legalMoveIterator(team);
+        return new Iterator<>() {
+            @Override
+            public boolean hasNext() {
+                return packed.hasNext();
+            }
+
+            @Override
+            public ChessMove next() {
+                return PackedMove.toChessMove(packed.nextInt());
+            }
+        };
+    }
+
+    /**
+     * A lazy stream of the legal moves of the team to move, so short-circuiting
+     * operations such as anyMatch stop generating at the first match
+     */
+    public Stream<ChessMove> legalMoveStream() {
+        var spliterator = Spliterators.spliteratorUnknownSize(legalMoveIterator(),
+                Spliterator.ORDERED | Spliterator.DISTINCT | Spliterator.NONNULL);
+        return StreamSupport.stream(spliterator, false);
+    }
+
+    /**
+     * Stops at the first legal move found, which in most positions is among the
+     * first generated
+     *
+     * @return true if the team has at least one legal move
+     */
+    public boolean hasLegalMove(TeamColor teamColor) {
+        if (teamColor == team) {
+            GameStatus known = status;
+            if (known != null && statusKey == zobristKey()) {
+                return known.legalMoveCount() > 0;
+            }
+        }
+        return legalMoveIterator(teamColor).hasNext();
+    }
+
+    private LegalMoveIterator legalMoveIterator(TeamColor teamColor) {
+        int enPassant = teamColor == team ? enPassantSquare : -1;
+        return new LegalMoveIterator(board, teamColor.ordinal(), ~0L, castlingRights, enPassant);
+    }
+
+    /**
+     * Adds the legal moves of the team to move as packed moves
+     */
+    void legalMoves(MoveList moves) {
+        MoveGenerator.legalMoves(board, team.ordinal(), ~0L, castlingRights, enPassantSquare, moves);
+    }
+
+    /**
+     * Adds the team's legal moves from the given squares as packed moves. En
+     * passant only applies when the team is the one to move.
+     */
+    private void legalMoves(TeamColor teamColor, long fromMask, MoveList moves) {
+        int enPassant = teamColor == team ? enPassantSquare : -1;
+        MoveGenerator.legalMoves(board, teamColor.ordinal(), fromMask, castlingRights, enPassant, moves);
+    }
+
     // Make Move
     public void makeMove(ChessMove move) throws InvalidMoveException {
         ChessPiece piece = board.getPiece(move.getStartPosition());
@@ -73,108 +351,225 @@ public class ChessGame {
             throw new InvalidMoveException("wrong team");
         }
 
-        if (!validMoves(move.getStartPosition()).contains(move)) {
-            throw new InvalidMoveException("Invalid move");
+        MoveList legal = legalMovesFrom(team, ChessBoard.squareOf(move.getStartPosition()));
+        int requested = PackedMove.fromChessMove(move);
+        for (int i = 0; i < legal.size(); i++) {
+            if (PackedMove.withoutFlags(legal.get(i)) == requested) {
+                applyMove(legal.get(i));
+                repetitions = repetitionCount();
+                status = null;
+                publish();
+                return;
+            }
         }
+        throw new InvalidMoveException("Invalid move");
+    }
 
-        testMove(move, piece);
+    /**
+     * Plays packed moves that are known to be legal, such as ones read back from
+     * another game's undo stack
+     *
+     * @param from the index of the first move to play
+     * @param to   the index after the last move to play
+     */
+    void playMoves(int[] moves, int from, int to) {
+        for (int i = from; i < to; i++) {
+            applyMove(moves[i]);
+        }
+        repetitions = repetitionCount();
+        status = null;
+        publish();
+    }
 
-        team = (turn++ % 2 == 0) ? TeamColor.WHITE : TeamColor.BLACK;
+    /**
+     * Takes back the last move, restoring the position exactly as it was,
+     * including castling rights, the en passant square and the halfmove clock.
+     * Moves made before the last setBoard or setTeamTurn cannot be taken back.
+     *
+     * @throws InvalidMoveException if there is no move to take back
+     */
+    public void unmakeMove() throws InvalidMoveException {
+        if (undoSize == 0) {
+            throw new InvalidMoveException("No move to take back");
+        }
+        retractMove();
+        repetitions = repetitionCount();
+        status = null;
+        publish();
     }
 
-    // Check / Checkmate / Stalemate
-    public boolean isInCheck(TeamColor teamColor) {
-        ChessPosition kingPos = findKing(teamColor);
-        for (ChessPosition pos : getAllPiecePositions()) {
-            ChessPiece piece = board.getPiece(pos);
-            if (piece != null && piece.getTeamColor() != teamColor) {
-                for (ChessMove move : piece.pieceMoves(board, pos)) {
-                    if (move.getEndPosition().equals(kingPos)) {
-                        return true;
-                    }
-                }
+    /**
+     * Plays a legal packed move, including the rook's half of castling and the
+     * pawn taken en passant, and passes the turn. The move is pushed on the undo
+     * stack so that {@link #retractMove()} can take it back.
+     */
+    void applyMove(int move) {
+        int from = PackedMove.from(move);
+        int to = PackedMove.to(move);
+        int us = team.ordinal();
+        int moving = board.pieceCodeAt(from);
+        int captured = board.pieceCodeAt(to);
+        ChessPiece.PieceType promotion = PackedMove.promotion(move);
+        pushUndo(move, captured);
+
+        board.clearSquare(from);
+        board.clearSquare(to);
+        board.setSquare(to, promotion == null ? moving : us * ChessBoard.PIECE_TYPES + promotion.ordinal());
+
+        if (PackedMove.hasFlag(move, PackedMove.EN_PASSANT)) {
+            board.clearSquare(to + (us == 0 ? -8 : 8));
+        } else if (PackedMove.hasFlag(move, PackedMove.CASTLE)) {
+            int rookFrom = to > from ? from + 3 : from - 4;
+            int rookTo = to > from ? from + 1 : from - 1;
+            int rook = board.pieceCodeAt(rookFrom);
+            board.clearSquare(rookFrom);
+            board.setSquare(rookTo, rook);
+        }
+
+        castlingRights = CastlingRights.afterMove(castlingRights, from, to);
+        boolean pawnMove = moving == us * ChessBoard.PIECE_TYPES + MoveGenerator.PAWN;
+        halfmoveClock = pawnMove || captured >= 0 ? 0 : halfmoveClock + 1;
+        turn++;
+        enPassantSquare = -1;
+        if (PackedMove.hasFlag(move, PackedMove.DOUBLE_PUSH)) {
+            int skipped = (from + to) / 2;
+            // Only record the square when an enemy pawn could actually take there
+            if ((Attacks.pawn(us, skipped) & board.pieces(us ^ 1, MoveGenerator.PAWN)) != 0) {
+                enPassantSquare = skipped;
             }
         }
-        return false;
+        team = opposite(team);
     }
 
-    public boolean isInCheckmate(TeamColor teamColor) {
-        if (!isInCheck(teamColor)) {
-            return false;
+    /**
+     * Takes back the move on top of the undo stack in constant time
+     */
+    void retractMove() {
+        long undo = undoStack[--undoSize];
+        int move = (int) undo & 0x7FFFF;
+        int captured = (int) (undo >>> 19 & 0xF) - 1;
+        int from = PackedMove.from(move);
+        int to = PackedMove.to(move);
+
+        team = opposite(team);
+        int us = team.ordinal();
+        int moved = board.pieceCodeAt(to);
+        board.clearSquare(to);
+        board.setSquare(from, PackedMove.isPromotion(move) ? us * ChessBoard.PIECE_TYPES + MoveGenerator.PAWN : moved);
+
+        if (captured >= 0) {
+            board.setSquare(to, captured);
+        } else if (PackedMove.hasFlag(move, PackedMove.EN_PASSANT)) {
+            board.setSquare(to + (us == 0 ? -8 : 8), (us ^ 1) * ChessBoard.PIECE_TYPES + MoveGenerator.PAWN);
+        } else if (PackedMove.hasFlag(move, PackedMove.CASTLE)) {
+            int rookFrom = to > from ? from + 3 : from - 4;
+            int rookTo = to > from ? from + 1 : from - 1;
+            int rook = board.pieceCodeAt(rookTo);
+            board.clearSquare(rookTo);
+            board.setSquare(rookFrom, rook);
         }
 
-        for (ChessPosition pos : getTeamPiecePositions(teamColor)) {
-            ChessPiece piece = board.getPiece(pos);
-            if (piece == null) {
-                continue;
-            }
+        castlingRights = (int) (undo >>> 23 & 0xF);
+        enPassantSquare = (int) (undo >>> 27 & 0x7F) - 1;
+        halfmoveClock = (int) (undo >>> 34 & 0xFFFF);
+        turn--;
+    }
 
-            for (ChessMove move : piece.pieceMoves(board, pos)) {
-                if (moveRemovesCheck(move, piece, teamColor)) {
-                    return false;
-                }
+    /**
+     * No position from before a capture or pawn move can occur again, so only
+     * the positions since the halfmove clock last reset are compared, and only
+     * those with the same team to move.
+     *
+     * @return how many times the current position has occurred
+     */
+    int repetitionCount() {
+        long key = zobristKey();
+        int count = 1;
+        int earliest = Math.max(0, undoSize - halfmoveClock);
+        for (int ply = undoSize - 2; ply >= earliest; ply -= 2) {
+            if (keyHistory[ply] == key) {
+                count++;
             }
         }
-        return true;
+        return count;
     }
 
-    public boolean isInStalemate(TeamColor teamColor) {
-        if (isInCheck(teamColor)) {
-            return false;
+    private void pushUndo(int move, int captured) {
+        if (undoSize == undoStack.length) {
+            undoStack = Arrays.copyOf(undoStack, undoSize * 2);
+            keyHistory = Arrays.copyOf(keyHistory, undoSize * 2);
         }
+        keyHistory[undoSize] = zobristKey();
+        undoStack[undoSize++] = move | (long) (captured + 1) << 19 | (long) castlingRights << 23
+                | (long) (enPassantSquare + 1) << 27 | (long) Math.min(halfmoveClock, 0xFFFF) << 34;
+    }
 
-        for (ChessPosition pos : getTeamPiecePositions(teamColor)) {
-            Collection<ChessMove> moves = validMoves(pos);
-            if (moves != null && !moves.isEmpty()) {
-                return false;
-            }
-        }
-        return true;
+    // Check / Checkmate / Stalemate
+    public boolean isInCheck(TeamColor teamColor) {
+        int king = board.kingSquare(teamColor);
+        return king >= 0 && board.isAttacked(king, opposite(teamColor).ordinal());
     }
 
-    // Helper Methods
-    private boolean moveRemovesCheck(ChessMove move, ChessPiece piece, TeamColor teamColor) {
-        ChessPiece captured = board.getPiece(move.getEndPosition());
-        testMove(move, piece);
-        boolean stillInCheck = isInCheck(teamColor);
-        undoMove(move, piece, captured);
-        return !stillInCheck;
-    }
-
-    private List<ChessPosition> getTeamPiecePositions(TeamColor teamColor) {
-        List<ChessPosition> positions = new ArrayList<>();
-        for (int row = 1; row <= 8; row++) {
-            for (int col = 1; col <= 8; col++) {
-                ChessPosition pos = new ChessPosition(row, col);
-                ChessPiece piece = board.getPiece(pos);
-                if (piece != null && piece.getTeamColor() == teamColor) {
-                    positions.add(pos);
-                }
-            }
+    public boolean isInCheckmate(TeamColor teamColor) {
+        return isInCheck(teamColor) && !hasLegalMove(teamColor);
+    }
+
+    public boolean isInStalemate(TeamColor teamColor) {
+        return !isInCheck(teamColor) && !hasLegalMove(teamColor);
+    }
+
+    /**
+     * Computes the status of the team to move once per position. It is forgotten
+     * when a move is made or taken back, the board or turn is set, or the pieces
+     * on the board are changed directly.
+     *
+     * @return whether the team to move is in check, how many legal moves it has,
+     * and whether the game is over
+     */
+    public GameStatus getStatus() {
+        long key = zobristKey();
+        GameStatus current = status;
+        if (current == null || statusKey != key) {
+            current = computeStatus();
+            status = current;
+            statusKey = key;
         }
-        return positions;
+        return current;
     }
 
-    private List<ChessPosition> getAllPiecePositions() {
-        List<ChessPosition> positions = new ArrayList<>();
-        for (int row = 1; row <= 8; row++) {
-            for (int col = 1; col <= 8; col++) {
-                positions.add(new ChessPosition(row, col));
-            }
+    private GameStatus computeStatus() {
+        boolean inCheck = isInCheck(team);
+        LegalMoveCache cache = LegalMoveCache.installed();
+        int moveCount;
+        if (cache != null) {
+            moveCount = cache.legalMoves(this).length;
+        } else {
+            MoveList moves = new MoveList();
+            legalMoves(moves);
+            moveCount = moves.size();
+        }
+
+        GameStatus.Outcome outcome;
+        if (moveCount == 0) {
+            outcome = inCheck ? GameStatus.Outcome.CHECKMATE : GameStatus.Outcome.STALEMATE;
+        } else if (isThreefoldRepetition()) {
+            outcome = GameStatus.Outcome.THREEFOLD_REPETITION;
+        } else if (isFiftyMoveRule()) {
+            outcome = GameStatus.Outcome.FIFTY_MOVE_RULE;
+        } else {
+            outcome = GameStatus.Outcome.IN_PROGRESS;
         }
-        return positions;
+        return new GameStatus(team, inCheck, moveCount, outcome);
     }
 
+    // Helper Methods
     public ChessPosition findKing(TeamColor teamColor) {
-        for (ChessPosition pos : getAllPiecePositions()) {
-            ChessPiece piece = board.getPiece(pos);
-            if (piece != null &&
-                    piece.getPieceType() == ChessPiece.PieceType.KING &&
-                    piece.getTeamColor() == teamColor) {
-                return pos;
-            }
-        }
-        return null;
+        int king = board.kingSquare(teamColor);
+        return king < 0 ? null : ChessPosition.ofSquare(king);
+    }
+
+    private static TeamColor opposite(TeamColor teamColor) {
+        return teamColor == TeamColor.WHITE ? TeamColor.BLACK : TeamColor.WHITE;
     }
 
     // Board Manipulation
@@ -184,7 +579,7 @@ public class ChessGame {
         ChessPiece.PieceType promotion = move.getPromotionPiece();
 
         if (promotion != null) {
-            board.addPiece(end, new ChessPiece(piece.getTeamColor(), promotion));
+            board.addPiece(end, ChessPiece.of(piece.getTeamColor(), promotion));
         } else {
             board.addPiece(end, piece);
         }
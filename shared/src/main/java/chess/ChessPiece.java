@@ -19,9 +19,54 @@ public class ChessPiece {
         KING, QUEEN, BISHOP, KNIGHT, ROOK, PAWN
     }
 
+    private static final PieceType[] TYPES = PieceType.values();
+    private static final ChessPiece[] SHARED = new ChessPiece[2 * TYPES.length];
+
+    static {
+        for (ChessGame.TeamColor color : ChessGame.TeamColor.values()) {
+            for (PieceType type : TYPES) {
+                SHARED[color.ordinal() * TYPES.length + type.ordinal()] = new ChessPiece(color, type);
+            }
+        }
+    }
+
+    /**
+     * Pieces are immutable, so the board hands out one shared instance per
+     * color and type instead of allocating on every lookup.
+     *
+     * @return the shared piece of the given color and type
+     */
+    public static ChessPiece of(ChessGame.TeamColor color, PieceType type) {
+        return SHARED[color.ordinal() * TYPES.length + type.ordinal()];
+    }
+
+    static ChessPiece of(int color, int type) {
+        return SHARED[color * TYPES.length + type];
+    }
+
     public ChessGame.TeamColor getTeamColor() { return pieceColor; }
     public PieceType getPieceType() { return type; }
 
+    /**
+     * @return the piece's letter, upper case for white and lower case for black
+     */
+    public char toChar() {
+        char c = switch (type) {
+            case KING -> 'k';
+            case QUEEN -> 'q';
+            case BISHOP -> 'b';
+            case KNIGHT -> 'n';
+            case ROOK -> 'r';
+            case PAWN -> 'p';
+        };
+        return pieceColor == ChessGame.TeamColor.WHITE ? Character.toUpperCase(c) : c;
+    }
+
+    @Override
+    public String toString() {
+        return String.valueOf(toChar());
+    }
+
     @Override
     public boolean equals(Object o) {
         if (this == o) {
@@ -38,139 +83,21 @@ public class ChessPiece {
         return Objects.hash(pieceColor, type);
     }
 
+    /**
+     * Calculates all the positions a chess piece can move to, without taking
+     * into account moves that are illegal due to leaving the king in danger.
+     * See {@link MoveGenerator#pieceMoves} for the allocation-free form.
+     *
+     * @return Collection of valid moves
+     */
     public Collection<ChessMove> pieceMoves(ChessBoard board, ChessPosition pos) {
-        return switch (type) {
-            case KING -> kingMoves(board, pos);
-            case QUEEN -> slidingMoves(board, pos, new int[][]{
-                    {1, 0}, {-1, 0}, {0, 1}, {0, -1},
-                    {1, 1}, {1, -1}, {-1, 1}, {-1, -1}
-            });
-            case BISHOP -> slidingMoves(board, pos, new int[][]{
-                    {1, 1}, {1, -1}, {-1, 1}, {-1, -1}
-            });
-            case ROOK -> slidingMoves(board, pos, new int[][]{
-                    {1, 0}, {-1, 0}, {0, 1}, {0, -1}
-            });
-            case KNIGHT -> stepMoves(board, pos, new int[][]{
-                    {2, 1}, {2, -1}, {-2, 1}, {-2, -1},
-                    {1, 2}, {1, -2}, {-1, 2}, {-1, -2}
-            });
-            case PAWN -> pawnMoves(board, pos);
-        };
-    }
+        MoveList packed = new MoveList();
+        MoveGenerator.pieceMoves(board, pos, this, packed);
 
-    private Collection<ChessMove> slidingMoves(ChessBoard board, ChessPosition pos, int[][] directions) {
-        List<ChessMove> moves = new ArrayList<>();
-        int row = pos.getRow();
-        int col = pos.getColumn();
-
-        for (int[] dir : directions) {
-            int r = row + dir[0];
-            int c = col + dir[1];
-
-            while (board.inBounds(r, c)) {
-                ChessPosition next = new ChessPosition(r, c);
-                ChessPiece target = board.getPiece(next);
-
-                if (target == null) {
-                    moves.add(new ChessMove(pos, next, null));
-                } else {
-                    if (target.getTeamColor() != pieceColor) {
-                        moves.add(new ChessMove(pos, next, null));
-                    }
-                    break;
-                }
-                r += dir[0];
-                c += dir[1];
-            }
+        List<ChessMove> moves = new ArrayList<>(packed.size());
+        for (int i = 0; i < packed.size(); i++) {
+            moves.add(PackedMove.toChessMove(packed.get(i)));
         }
         return moves;
     }
-
-
-    private Collection<ChessMove> stepMoves(ChessBoard board, ChessPosition pos, int[][] directions) {
-        List<ChessMove> moves = new ArrayList<>();
-        int row = pos.getRow(), col = pos.getColumn();
-
-        for (int[] dir : directions) {
-            int r = row + dir[0], c = col + dir[1];
-            if (!board.inBounds(r, c)) {
-                continue;
-            }
-
-            ChessPosition next = new ChessPosition(r, c);
-            ChessPiece target = board.getPiece(next);
-            if (target == null || target.getTeamColor() != pieceColor) {
-                moves.add(new ChessMove(pos, next, null));
-            }
-        }
-        return moves;
-    }
-
-    private Collection<ChessMove> kingMoves(ChessBoard board, ChessPosition pos) {
-        int[][] directions = {
-                {1, 1}, {1, 0}, {1, -1},
-                {0, 1}, {0, -1},
-                {-1, 1}, {-1, 0}, {-1, -1}
-        };
-        return stepMoves(board, pos, directions);
-    }
-
-    private Collection<ChessMove> pawnMoves(ChessBoard board, ChessPosition pos) {
-        List<ChessMove> moves = new ArrayList<>();
-        int dir = (pieceColor == ChessGame.TeamColor.WHITE) ? 1 : -1;
-        int row = pos.getRow(), col = pos.getColumn();
-
-        int nextRow = row + dir;
-
-        // Forward one square
-        if (board.inBounds(nextRow, col) && board.getPiece(new ChessPosition(nextRow, col)) == null) {
-            ChessPosition next = new ChessPosition(nextRow, col);
-            if (isPromotionRank(nextRow)) {
-                addPromotions(moves, pos, next); // multiple promotion choices
-            } else {
-                moves.add(new ChessMove(pos, next, null));
-            }
-        }
-
-        // Double move from start
-        int startRow = (pieceColor == ChessGame.TeamColor.WHITE) ? 2 : 7;
-        int twoRow = row + (2 * dir);
-        if (row == startRow && board.inBounds(twoRow, col)
-                && board.getPiece(new ChessPosition(nextRow, col)) == null
-                && board.getPiece(new ChessPosition(twoRow, col)) == null) {
-            moves.add(new ChessMove(pos, new ChessPosition(twoRow, col), null));
-        }
-
-        // Diagonal captures
-        int[][] captures = {{dir, 1}, {dir, -1}};
-        for (int[] cap : captures) {
-            int r = row + cap[0], c = col + cap[1];
-            if (!board.inBounds(r, c)) {
-                continue;
-            }
-            ChessPosition targetPos = new ChessPosition(r, c);
-            ChessPiece target = board.getPiece(targetPos);
-            if (target != null && target.getTeamColor() != pieceColor) {
-                if (isPromotionRank(r)) {
-                    addPromotions(moves, pos, targetPos);
-                } else {
-                    moves.add(new ChessMove(pos, targetPos, null));
-                }
-            }
-        }
-        return moves;
-    }
-
-    private boolean isPromotionRank(int row) {
-        return (pieceColor == ChessGame.TeamColor.WHITE && row == 8)
-                || (pieceColor == ChessGame.TeamColor.BLACK && row == 1);
-    }
-
-    private void addPromotions(List<ChessMove> moves, ChessPosition from, ChessPosition to) {
-        moves.add(new ChessMove(from, to, PieceType.QUEEN));
-        moves.add(new ChessMove(from, to, PieceType.ROOK));
-        moves.add(new ChessMove(from, to, PieceType.BISHOP));
-        moves.add(new ChessMove(from, to, PieceType.KNIGHT));
-    }
 }
@@ -9,6 +9,14 @@ import java.util.Objects;
  */
 public class ChessPosition {
 
+    private static final ChessPosition[] SQUARES = new ChessPosition[64];
+
+    static {
+        for (int square = 0; square < 64; square++) {
+            SQUARES[square] = new ChessPosition(square / 8 + 1, square % 8 + 1);
+        }
+    }
+
     private final int row;
     private final int col;
 
@@ -33,6 +41,17 @@ public class ChessPosition {
         return col;
     }
 
+    /**
+     * Positions are immutable, so on-board positions are shared rather than
+     * allocated for every generated move.
+     *
+     * @param square the square index, (row - 1) * 8 + (column - 1)
+     * @return the shared position for that square
+     */
+    public static ChessPosition ofSquare(int square) {
+        return SQUARES[square];
+    }
+
     @Override
     public boolean equals(Object o) {
         if (this == o) {
@@ -0,0 +1,30 @@
+package chess;
+
+/**
+ * Scores positions for {@link Search}. Scores are in centipawns from the point
+ * of view of the team to move, so a positive score means the team to move is
+ * ahead. Search calls an evaluator at every leaf, so implementations should
+ * not allocate.
+ */
+public interface Evaluator {
+
+    int evaluate(ChessGame game);
+
+    /**
+     * Prepares to score the positions reached by playing moves on the game,
+     * which must belong to the caller alone. Evaluators that keep sums up to
+     * date as pieces move listen to the game's board until {@link #detach()}.
+     * Evaluators that do not need to listen return themselves.
+     *
+     * @return the evaluator to use for this game's positions
+     */
+    default Evaluator attach(ChessGame game) {
+        return this;
+    }
+
+    /**
+     * Stops listening to the game passed to {@link #attach(ChessGame)}
+     */
+    default void detach() {
+    }
+}
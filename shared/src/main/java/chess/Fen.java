@@ -0,0 +1,261 @@
+package chess;
+
+/**
+ * Reads and writes Forsyth-Edwards Notation, the standard one-line text form of
+ * a chess position, for example the starting position:
+ * <pre>
+ *   rnbqkbnr/pppppppp/8/8/8/8/PPPPPPPP/RNBQKBNR w KQkq - 0 1
+ * </pre>
+ * Parsing makes a single pass over the characters and places pieces straight
+ * into the bitboards, with no splitting, regular expressions or intermediate
+ * strings.
+ */
+final class Fen {
+
+    /** Piece codes (color * 6 + type ordinal) as FEN letters */
+    private static final String LETTERS = "KQBNRPkqbnrp";
+    /** The undo stack keeps the clock in 16 bits */
+    static final int MAX_HALFMOVE_CLOCK = 0xFFFF;
+    /** Far beyond any real game, and small enough that plies fit in an int */
+    static final int MAX_FULLMOVE = 1_000_000;
+
+    private Fen() {
+    }
+
+    /**
+     * Reads the piece placement, the first field of a FEN record. Anything after
+     * it is ignored.
+     */
+    static ChessBoard parseBoard(CharSequence fen) {
+        ChessBoard board = new ChessBoard();
+        parsePlacement(fen, board);
+        return board;
+    }
+
+    /**
+     * Reads a full FEN record. The halfmove clock and fullmove number may be left
+     * off, in which case they default to 0 and 1. The en passant square must be
+     * behind a pawn of the team that just moved.
+     */
+    static ChessGame parseGame(CharSequence fen) {
+        ChessBoard board = new ChessBoard();
+        int i = parsePlacement(fen, board);
+        i = skipSpace(fen, i);
+
+        ChessGame.TeamColor team = switch (charAt(fen, i++)) {
+            case 'w' -> ChessGame.TeamColor.WHITE;
+            case 'b' -> ChessGame.TeamColor.BLACK;
+            default -> throw error(fen, i - 1, "expected w or b");
+        };
+        i = skipSpace(fen, i);
+
+        int castling = CastlingRights.NONE;
+        if (charAt(fen, i) == '-') {
+            i++;
+        } else {
+            for (; i < fen.length() && fen.charAt(i) != ' '; i++) {
+                castling |= switch (fen.charAt(i)) {
+                    case 'K' -> CastlingRights.WHITE_KINGSIDE;
+                    case 'Q' -> CastlingRights.WHITE_QUEENSIDE;
+                    case 'k' -> CastlingRights.BLACK_KINGSIDE;
+                    case 'q' -> CastlingRights.BLACK_QUEENSIDE;
+                    default -> throw error(fen, i, "expected castling rights");
+                };
+            }
+        }
+        // Drop rights whose king or rook has left its square
+        castling &= CastlingRights.fromBoard(board);
+        i = skipSpace(fen, i);
+
+        int enPassant = -1;
+        if (charAt(fen, i) == '-') {
+            i++;
+        } else {
+            int file = charAt(fen, i) - 'a';
+            int rank = charAt(fen, i + 1) - '1';
+            int expectedRank = enPassantRank(team);
+            if (file < 0 || file > 7 || rank != expectedRank) {
+                throw error(fen, i, "expected an en passant square on rank " + (expectedRank + 1));
+            }
+            i += 2;
+            enPassant = capturableEnPassant(board, team, rank * 8 + file);
+        }
+
+        int halfmoveClock = 0;
+        int fullmove = 1;
+        if (i < fen.length()) {
+            i = skipSpace(fen, i);
+            for (; i < fen.length() && fen.charAt(i) != ' '; i++) {
+                halfmoveClock = halfmoveClock * 10 + digit(fen, i);
+                if (halfmoveClock > MAX_HALFMOVE_CLOCK) {
+                    throw error(fen, i, "halfmove clock above " + MAX_HALFMOVE_CLOCK);
+                }
+            }
+            if (i < fen.length()) {
+                i = skipSpace(fen, i);
+                if (i < fen.length()) {
+                    fullmove = 0;
+                    for (; i < fen.length() && fen.charAt(i) != ' '; i++) {
+                        fullmove = fullmove * 10 + digit(fen, i);
+                        if (fullmove > MAX_FULLMOVE) {
+                            throw error(fen, i, "fullmove number above " + MAX_FULLMOVE);
+                        }
+                    }
+                    fullmove = Math.max(1, fullmove);
+                }
+            }
+        }
+        int turn = 2 * (fullmove - 1) + team.ordinal() + 1;
+        return new ChessGame(board, team, castling, enPassant, halfmoveClock, turn);
+    }
+
+    /**
+     * @return the piece placement field of the board
+     */
+    static String format(ChessBoard board) {
+        StringBuilder fen = new StringBuilder(64);
+        appendPlacement(board, fen);
+        return fen.toString();
+    }
+
+    static String format(ChessGame game, int halfmoveClock, int fullmove) {
+        StringBuilder fen = new StringBuilder(90);
+        appendPlacement(game.getBoard(), fen);
+        fen.append(game.getTeamTurn() == ChessGame.TeamColor.WHITE ? " w " : " b ");
+
+        int castling = game.getCastlingRights();
+        if (castling == CastlingRights.NONE) {
+            fen.append('-');
+        } else {
+            if ((castling & CastlingRights.WHITE_KINGSIDE) != 0) {
+                fen.append('K');
+            }
+            if ((castling & CastlingRights.WHITE_QUEENSIDE) != 0) {
+                fen.append('Q');
+            }
+            if ((castling & CastlingRights.BLACK_KINGSIDE) != 0) {
+                fen.append('k');
+            }
+            if ((castling & CastlingRights.BLACK_QUEENSIDE) != 0) {
+                fen.append('q');
+            }
+        }
+
+        ChessPosition enPassant = game.getEnPassantPosition();
+        if (enPassant == null) {
+            fen.append(" -");
+        } else {
+            fen.append(' ').append((char) ('a' + enPassant.getColumn() - 1)).append(enPassant.getRow());
+        }
+        return fen.append(' ').append(halfmoveClock).append(' ').append(fullmove).toString();
+    }
+
+    /**
+     * @return the index just past the placement field
+     */
+    private static int parsePlacement(CharSequence fen, ChessBoard board) {
+        int row = 7;
+        int col = 0;
+        int i = 0;
+        for (; i < fen.length(); i++) {
+            char c = fen.charAt(i);
+            if (c == ' ') {
+                break;
+            }
+            if (c == '/') {
+                if (col != 8 || row == 0) {
+                    throw error(fen, i, "rank does not have 8 squares");
+                }
+                row--;
+                col = 0;
+            } else if (c >= '1' && c <= '8') {
+                col += c - '0';
+            } else {
+                int code = LETTERS.indexOf(c);
+                if (code < 0 || col > 7) {
+                    throw error(fen, i, code < 0 ? "unknown piece" : "rank has more than 8 squares");
+                }
+                board.setSquare(row * 8 + col, code);
+                col++;
+            }
+            if (col > 8) {
+                throw error(fen, i, "rank has more than 8 squares");
+            }
+        }
+        if (row != 0 || col != 8) {
+            throw error(fen, i, "placement does not cover 8 ranks");
+        }
+        return i;
+    }
+
+    private static void appendPlacement(ChessBoard board, StringBuilder fen) {
+        for (int row = 7; row >= 0; row--) {
+            int empty = 0;
+            for (int col = 0; col < 8; col++) {
+                int code = board.pieceCodeAt(row * 8 + col);
+                if (code < 0) {
+                    empty++;
+                    continue;
+                }
+                if (empty > 0) {
+                    fen.append((char) ('0' + empty));
+                    empty = 0;
+                }
+                fen.append(LETTERS.charAt(code));
+            }
+            if (empty > 0) {
+                fen.append((char) ('0' + empty));
+            }
+            if (row > 0) {
+                fen.append('/');
+            }
+        }
+    }
+
+    /**
+     * @return the en passant square if a pawn of the team to move could take
+     * there, or -1
+     */
+    static int capturableEnPassant(ChessBoard board, ChessGame.TeamColor team, int square) {
+        int mover = team.ordinal() ^ 1;
+        return (Attacks.pawn(mover, square) & board.pieces(team.ordinal(), MoveGenerator.PAWN)) == 0 ? -1 : square;
+    }
+
+    /**
+     * @return the rank, from 0, that an en passant square must be on with the
+     * team to move
+     */
+    static int enPassantRank(ChessGame.TeamColor team) {
+        // The pawn that just moved two squares passed the 3rd or 6th rank
+        return team == ChessGame.TeamColor.WHITE ? 5 : 2;
+    }
+
+    private static int skipSpace(CharSequence fen, int i) {
+        if (charAt(fen, i) != ' ') {
+            throw error(fen, i, "expected a space");
+        }
+        while (i < fen.length() && fen.charAt(i) == ' ') {
+            i++;
+        }
+        return i;
+    }
+
+    private static char charAt(CharSequence fen, int i) {
+        if (i >= fen.length()) {
+            throw error(fen, i, "unexpected end");
+        }
+        return fen.charAt(i);
+    }
+
+    private static int digit(CharSequence fen, int i) {
+        char c = fen.charAt(i);
+        if (c < '0' || c > '9') {
+            throw error(fen, i, "expected a number");
+        }
+        return c - '0';
+    }
+
+    private static IllegalArgumentException error(CharSequence fen, int index, String message) {
+        return new IllegalArgumentException("Invalid FEN at " + index + ", " + message + ": " + fen);
+    }
+}
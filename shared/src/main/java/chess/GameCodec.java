@@ -0,0 +1,132 @@
+package chess;
+
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.Arrays;
+
+/**
+ * A compact, versioned binary form of a {@link ChessGame}, for storage. The
+ * starting position takes 29 bytes.
+ * <p>
+ * Version 1 layout, multi-byte values little-endian:
+ * <pre>
+ *   1 byte   version
+ *   8 bytes  occupied squares, bit (row - 1) * 8 + (column - 1)
+ *   n bytes  one 4-bit piece code per occupied square, lowest square first and
+ *            low nibble first; the code is color * 6 + type ordinal
+ *   1 byte   bit 0 set if black is to move, bits 1-4 castling rights
+ *   1 byte   en passant square + 1, or 0 for none
+ *   varint   halfmove clock
+ *   varint   turn, the number of moves played plus one
+ * </pre>
+ * The first byte is never '{', so stored games can be told apart from the JSON
+ * they replace.
+ */
+public final class GameCodec {
+
+    public static final int VERSION = 1;
+
+    /** Room for a piece on every square, however many the board holds */
+    private static final int MAX_SIZE = 1 + 8 + 32 + 1 + 1 + 5 + 5;
+
+    private GameCodec() {
+    }
+
+    public static byte[] encode(ChessGame game) {
+        ChessBoard board = game.getBoard();
+        ByteBuffer out = ByteBuffer.allocate(MAX_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+        out.put((byte) VERSION);
+
+        long occupied = board.occupancy();
+        out.putLong(occupied);
+        int pending = -1;
+        for (long bits = occupied; bits != 0; bits &= bits - 1) {
+            int code = board.pieceCodeAt(Long.numberOfTrailingZeros(bits));
+            if (pending < 0) {
+                pending = code;
+            } else {
+                out.put((byte) (pending | code << 4));
+                pending = -1;
+            }
+        }
+        if (pending >= 0) {
+            out.put((byte) pending);
+        }
+
+        int black = game.getTeamTurn() == ChessGame.TeamColor.BLACK ? 1 : 0;
+        out.put((byte) (black | game.getCastlingRights() << 1));
+        ChessPosition enPassant = game.getEnPassantPosition();
+        out.put((byte) (enPassant == null ? 0 : ChessBoard.squareOf(enPassant) + 1));
+        putVarint(out, game.getHalfmoveClock());
+        putVarint(out, game.turn());
+        return Arrays.copyOf(out.array(), out.position());
+    }
+
+    /**
+     * @throws IllegalArgumentException if the bytes are not an encoded game of a
+     *                                  known version
+     */
+    public static ChessGame decode(byte[] bytes) {
+        if (bytes.length == 0 || bytes[0] != VERSION) {
+            throw new IllegalArgumentException("Unknown game encoding version "
+                    + (bytes.length == 0 ? "(empty)" : bytes[0]));
+        }
+        try {
+            ByteBuffer in = ByteBuffer.wrap(bytes).order(ByteOrder.LITTLE_ENDIAN);
+            in.get();
+
+            ChessBoard board = new ChessBoard();
+            long occupied = in.getLong();
+            int packed = 0;
+            boolean high = false;
+            for (long bits = occupied; bits != 0; bits &= bits - 1) {
+                if (!high) {
+                    packed = in.get();
+                }
+                int code = high ? (packed >>> 4) & 0xF : packed & 0xF;
+                high = !high;
+                if (code >= 2 * ChessBoard.PIECE_TYPES) {
+                    throw new IllegalArgumentException("Invalid piece code " + code);
+                }
+                board.setSquare(Long.numberOfTrailingZeros(bits), code);
+            }
+
+            int flags = in.get();
+            ChessGame.TeamColor team = (flags & 1) != 0 ? ChessGame.TeamColor.BLACK : ChessGame.TeamColor.WHITE;
+            int castling = (flags >>> 1) & CastlingRights.ALL & CastlingRights.fromBoard(board);
+            int enPassant = (in.get() & 0xFF) - 1;
+            if (enPassant >= 0) {
+                if (enPassant > 63 || enPassant / 8 != Fen.enPassantRank(team)) {
+                    throw new IllegalArgumentException("Invalid en passant square " + enPassant);
+                }
+                enPassant = Fen.capturableEnPassant(board, team, enPassant);
+            }
+            int halfmoveClock = getVarint(in);
+            int turn = getVarint(in);
+            return new ChessGame(board, team, castling, enPassant, halfmoveClock, Math.max(1, turn));
+        } catch (BufferUnderflowException e) {
+            throw new IllegalArgumentException("Encoded game is truncated", e);
+        }
+    }
+
+    private static void putVarint(ByteBuffer out, int value) {
+        while ((value & ~0x7F) != 0) {
+            out.put((byte) (value & 0x7F | 0x80));
+            value >>>= 7;
+        }
+        out.put((byte) value);
+    }
+
+    private static int getVarint(ByteBuffer in) {
+        int value = 0;
+        for (int shift = 0; shift < 35; shift += 7) {
+            int b = in.get();
+            value |= (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) {
+                return value;
+            }
+        }
+        throw new IllegalArgumentException("Malformed varint");
+    }
+}
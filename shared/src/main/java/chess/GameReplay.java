@@ -0,0 +1,108 @@
+package chess;
+
+import java.util.Arrays;
+
+/**
+ * A game's moves from a starting position, with checkpoints that let any ply be
+ * reached without replaying the game from the start. Every
+ * {@link #CHECKPOINT_INTERVAL} plies the position is kept in its
+ * {@link GameCodec} form, all of them back to back in one array, so a 200-ply
+ * game carries about 400 bytes of checkpoints. Seeking decodes the nearest
+ * checkpoint at or before the ply and plays at most
+ * {@code CHECKPOINT_INTERVAL - 1} moves from it.
+ * <p>
+ * Replays are immutable and safe to share between threads.
+ */
+public final class GameReplay {
+
+    public static final int CHECKPOINT_INTERVAL = 16;
+
+    private final int startPly;
+    private final int[] moves;
+    private final byte[] checkpoints;
+    /** Where each checkpoint starts in {@link #checkpoints}, plus its end */
+    private final int[] offsets;
+
+    /**
+     * @param start the position before the first move; it is not changed
+     * @param moves packed moves, with or without their flags
+     * @throws IllegalArgumentException if a move is not legal where it is played
+     */
+    public GameReplay(ChessGame start, int[] moves) {
+        ChessGame game = new ChessGame(start);
+        this.startPly = game.getPly();
+        this.moves = new int[moves.length];
+
+        int count = moves.length / CHECKPOINT_INTERVAL + 1;
+        byte[][] encoded = new byte[count][];
+        this.offsets = new int[count + 1];
+        MoveList legal = new MoveList();
+        for (int i = 0; ; i++) {
+            if (i % CHECKPOINT_INTERVAL == 0) {
+                int index = i / CHECKPOINT_INTERVAL;
+                encoded[index] = GameCodec.encode(game);
+                offsets[index + 1] = offsets[index] + encoded[index].length;
+            }
+            if (i == moves.length) {
+                break;
+            }
+            legal.clear();
+            game.legalMoves(legal);
+            int move = find(legal, PackedMove.withoutFlags(moves[i]));
+            if (move == PackedMove.NONE) {
+                throw new IllegalArgumentException("Move " + (startPly + i + 1) + " ("
+                        + PackedMove.toString(moves[i]) + ") is not legal");
+            }
+            this.moves[i] = move;
+            game.applyMove(move);
+        }
+
+        this.checkpoints = new byte[offsets[count]];
+        for (int index = 0; index < count; index++) {
+            System.arraycopy(encoded[index], 0, checkpoints, offsets[index], encoded[index].length);
+        }
+    }
+
+    /**
+     * @return the number of moves played before the replay's first position
+     */
+    public int getStartPly() { return startPly; }
+
+    /**
+     * @return the number of moves played by the replay's last position
+     */
+    public int getEndPly() { return startPly + moves.length; }
+
+    /**
+     * @return the replayed moves, with their flags, oldest first
+     */
+    public int[] getMoves() { return moves.clone(); }
+
+    /**
+     * @param ply a number of moves from {@link #getStartPly()} to
+     *            {@link #getEndPly()}
+     * @return a new game at the position after that many moves. Moves since the
+     * nearest checkpoint can be taken back, and only positions since then count
+     * toward repetitions.
+     * @throws IllegalArgumentException if the ply is outside the replay
+     */
+    public ChessGame positionAt(int ply) {
+        if (ply < startPly || ply > getEndPly()) {
+            throw new IllegalArgumentException("Ply " + ply + " is outside " + startPly + "-" + getEndPly());
+        }
+        int played = ply - startPly;
+        int index = played / CHECKPOINT_INTERVAL;
+        ChessGame game = GameCodec.decode(Arrays.copyOfRange(checkpoints, offsets[index], offsets[index + 1]));
+        game.playMoves(moves, index * CHECKPOINT_INTERVAL, played);
+        return game;
+    }
+
+    private static int find(MoveList legal, int move) {
+        for (int i = 0; i < legal.size(); i++) {
+            if (PackedMove.withoutFlags(legal.get(i)) == move) {
+                return legal.get(i);
+            }
+        }
+        return PackedMove.NONE;
+    }
+}
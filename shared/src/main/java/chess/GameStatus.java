@@ -0,0 +1,28 @@
+package chess;
+
+/**
+ * Everything about a position that takes a full move generation to learn,
+ * computed once per position by {@link ChessGame#getStatus()}
+ *
+ * @param teamToMove     the team the status describes
+ * @param inCheck        whether that team's king is attacked
+ * @param legalMoveCount the number of legal moves the team has
+ * @param outcome        how the game stands
+ */
+public record GameStatus(ChessGame.TeamColor teamToMove, boolean inCheck, int legalMoveCount, Outcome outcome) {
+
+    public enum Outcome {
+        IN_PROGRESS,
+        CHECKMATE,
+        STALEMATE,
+        THREEFOLD_REPETITION,
+        FIFTY_MOVE_RULE
+    }
+
+    /**
+     * @return true if the game has ended in a checkmate or a draw
+     */
+    public boolean isOver() {
+        return outcome != Outcome.IN_PROGRESS;
+    }
+}
@@ -0,0 +1,154 @@
+package chess;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * A bounded cache of legal moves keyed by the full position, so that games
+ * passing through the same position, such as common openings, generate its
+ * moves only once. Once {@link #install installed}, every {@link ChessGame}
+ * consults it when listing or validating the moves of the team to move.
+ * <p>
+ * The cache is split into segments, each a least-recently-used map behind its
+ * own lock, so threads working on different positions rarely contend. Moves
+ * are generated outside the lock; two threads missing on the same position may
+ * both generate it, and the second result simply replaces the first.
+ */
+public final class LegalMoveCache {
+
+    private static final int SEGMENTS = 16;
+
+    private static volatile LegalMoveCache installed;
+
+    private final Segment[] segments = new Segment[SEGMENTS];
+    private final int capacity;
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+
+    /**
+     * @param capacity the most positions to keep
+     */
+    public LegalMoveCache(int capacity) {
+        if (capacity < SEGMENTS) {
+            throw new IllegalArgumentException("capacity must be at least " + SEGMENTS);
+        }
+        this.capacity = capacity;
+        for (int i = 0; i < SEGMENTS; i++) {
+            segments[i] = new Segment(capacity / SEGMENTS);
+        }
+    }
+
+    /**
+     * Makes the cache the one used by every game, or turns caching off
+     *
+     * @param cache the cache to share, or null for none
+     */
+    public static void install(LegalMoveCache cache) {
+        installed = cache;
+    }
+
+    /**
+     * @return the cache shared by every game, or null if there is none
+     */
+    public static LegalMoveCache installed() {
+        return installed;
+    }
+
+    /**
+     * @return the packed legal moves of the team to move; the array is shared
+     * and must not be modified
+     */
+    int[] legalMoves(ChessGame game) {
+        long key = game.zobristKey();
+        Segment segment = segments[(int) (key >>> 60)];
+        int[] moves;
+        synchronized (segment) {
+            moves = segment.get(key);
+        }
+        if (moves != null) {
+            hits.increment();
+            return moves;
+        }
+
+        misses.increment();
+        MoveList list = new MoveList();
+        game.legalMoves(list);
+        moves = list.toArray();
+        synchronized (segment) {
+            segment.put(key, moves);
+        }
+        return moves;
+    }
+
+    public void clear() {
+        for (Segment segment : segments) {
+            synchronized (segment) {
+                segment.clear();
+            }
+        }
+    }
+
+    public int capacity() {
+        return capacity;
+    }
+
+    /**
+     * @return the number of positions currently cached
+     */
+    public int size() {
+        int size = 0;
+        for (Segment segment : segments) {
+            synchronized (segment) {
+                size += segment.size();
+            }
+        }
+        return size;
+    }
+
+    public long hits() {
+        return hits.sum();
+    }
+
+    public long misses() {
+        return misses.sum();
+    }
+
+    public long evictions() {
+        return evictions.sum();
+    }
+
+    /**
+     * @return the fraction of lookups answered from the cache, or 0 before any
+     */
+    public double hitRate() {
+        long hit = hits();
+        long total = hit + misses();
+        return total == 0 ? 0 : (double) hit / total;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("LegalMoveCache{size=%d/%d, hits=%d, misses=%d, evictions=%d}",
+                size(), capacity, hits(), misses(), evictions());
+    }
+
+    private final class Segment extends LinkedHashMap<Long, int[]> {
+        private final int capacity;
+
+        Segment(int capacity) {
+            super(16, 0.75f, true);
+            this.capacity = capacity;
+        }
+
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<Long, int[]> eldest) {
+            if (size() > capacity) {
+                evictions.increment();
+                return true;
+            }
+            return false;
+        }
+    }
+}
@@ -0,0 +1,82 @@
+package chess;
+
+import java.util.NoSuchElementException;
+import java.util.PrimitiveIterator;
+
+/**
+ * Yields a team's legal moves as {@link PackedMove packed ints} one piece at a
+ * time, so a caller that only needs to know whether a legal move exists, or is
+ * looking for a particular one, stops generating as soon as it has its answer.
+ * <p>
+ * The check and pin masks are computed once up front, as in
+ * {@link MoveGenerator#legalMoves}. After that each refill generates the moves
+ * of a single piece, and en passant captures come last.
+ */
+public final class LegalMoveIterator implements PrimitiveIterator.OfInt {
+
+    private final ChessBoard board;
+    private final int us;
+    private final int king;
+    private final long checkMask;
+    private final long pinned;
+    private final int castlingRights;
+    private final long fromMask;
+    private int enPassantSquare;
+    private long remaining;
+    private final MoveList buffer = new MoveList(32);
+    private int index;
+
+    /**
+     * @param fromMask        the squares whose pieces may move
+     * @param enPassantSquare the square a pawn may capture onto en passant, or -1
+     */
+    LegalMoveIterator(ChessBoard board, int us, long fromMask, int castlingRights, int enPassantSquare) {
+        this.board = board;
+        this.us = us;
+        this.castlingRights = castlingRights;
+        this.enPassantSquare = enPassantSquare;
+        this.fromMask = fromMask;
+        long occupied = board.occupancy();
+        long kings = board.pieces(us, MoveGenerator.KING);
+        this.king = kings == 0 ? -1 : Long.numberOfTrailingZeros(kings);
+        this.checkMask = king < 0 ? ~0L : MoveGenerator.checkMask(board, king, us, occupied);
+        this.pinned = king < 0 ? 0 : MoveGenerator.pinnedPieces(board, king, us, occupied);
+        // In double check only the king can move
+        this.remaining = board.occupancy(us) & fromMask & (checkMask == 0 ? kings : ~0L);
+    }
+
+    @Override
+    public boolean hasNext() {
+        while (index == buffer.size()) {
+            if (!refill()) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    @Override
+    public int nextInt() {
+        if (!hasNext()) {
+            throw new NoSuchElementException();
+        }
+        return buffer.get(index++);
+    }
+
+    private boolean refill() {
+        buffer.clear();
+        index = 0;
+        if (remaining != 0) {
+            int from = Long.numberOfTrailingZeros(remaining);
+            remaining &= remaining - 1;
+            MoveGenerator.legalPieceMoves(board, from, us, king, checkMask, pinned, castlingRights, buffer);
+            return true;
+        }
+        if (enPassantSquare >= 0) {
+            MoveGenerator.enPassantMoves(board, us, king, fromMask, board.occupancy(), enPassantSquare, buffer);
+            enPassantSquare = -1;
+            return true;
+        }
+        return false;
+    }
+}
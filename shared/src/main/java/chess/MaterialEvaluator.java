@@ -0,0 +1,21 @@
+package chess;
+
+/**
+ * Counts material with the usual piece values: pawn 100, knight 320, bishop
+ * 330, rook 500 and queen 900
+ */
+public final class MaterialEvaluator implements Evaluator {
+
+    /** Centipawn values, indexed by piece type ordinal. The king is never captured. */
+    static final int[] VALUES = {0, 900, 330, 320, 500, 100};
+
+    @Override
+    public int evaluate(ChessGame game) {
+        ChessBoard board = game.getBoard();
+        int score = 0;
+        for (int type = 1; type < ChessBoard.PIECE_TYPES; type++) {
+            score += VALUES[type] * (Long.bitCount(board.pieces(0, type)) - Long.bitCount(board.pieces(1, type)));
+        }
+        return game.getTeamTurn() == ChessGame.TeamColor.WHITE ? score : -score;
+    }
+}
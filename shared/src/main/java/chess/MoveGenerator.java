@@ -0,0 +1,356 @@
+package chess;
+
+/**
+ * Generates moves as {@link PackedMove packed ints} into a caller-supplied
+ * {@link MoveList}. Nothing is allocated per generated move; {@link ChessMove}
+ * objects are only built where the public API hands moves back to callers.
+ * <p>
+ * Legal moves are produced directly rather than by playing each candidate and
+ * testing for check: the checking pieces, the squares that block or capture a
+ * lone checker, and the pieces pinned to their king are computed once per call
+ * and used to mask each piece's targets.
+ */
+public final class MoveGenerator {
+
+    static final int KING = ChessPiece.PieceType.KING.ordinal();
+    static final int QUEEN = ChessPiece.PieceType.QUEEN.ordinal();
+    static final int BISHOP = ChessPiece.PieceType.BISHOP.ordinal();
+    static final int ROOK = ChessPiece.PieceType.ROOK.ordinal();
+    static final int PAWN = ChessPiece.PieceType.PAWN.ordinal();
+
+    private static final ChessPiece.PieceType[] TYPES = ChessPiece.PieceType.values();
+    private static final ChessPiece.PieceType[] PROMOTIONS = {
+            ChessPiece.PieceType.QUEEN,
+            ChessPiece.PieceType.ROOK,
+            ChessPiece.PieceType.BISHOP,
+            ChessPiece.PieceType.KNIGHT,
+    };
+
+    /**
+     * Piece values for exchanges, indexed by type ordinal. The king is worth more
+     * than everything else, so it only captures when nothing can take it back.
+     */
+    private static final int[] EXCHANGE_VALUES = {20000, 900, 330, 320, 500, 100};
+    /** The most captures one square can see: every piece on the board */
+    static final int MAX_EXCHANGES = 32;
+    /** Piece types from cheapest to dearest, the order pieces join an exchange */
+    private static final int[] EXCHANGE_ORDER =
+            {PAWN, ChessPiece.PieceType.KNIGHT.ordinal(), BISHOP, ROOK, QUEEN, KING};
+
+    private MoveGenerator() {
+    }
+
+    /**
+     * Adds the moves the piece could make from the position, ignoring whether
+     * they leave its own king in check.
+     */
+    public static void pieceMoves(ChessBoard board, ChessPosition position, ChessPiece piece, MoveList moves) {
+        pieceMoves(board, ChessBoard.squareOf(position), piece.getTeamColor().ordinal(),
+                piece.getPieceType().ordinal(), moves);
+    }
+
+    /**
+     * Adds the moves every piece of the team could make, ignoring whether they
+     * leave its own king in check.
+     */
+    public static void pseudoLegalMoves(ChessBoard board, ChessGame.TeamColor color, MoveList moves) {
+        int c = color.ordinal();
+        for (int type = 0; type < TYPES.length; type++) {
+            for (long bits = board.pieces(c, type); bits != 0; bits &= bits - 1) {
+                pieceMoves(board, Long.numberOfTrailingZeros(bits), c, type, moves);
+            }
+        }
+    }
+
+    static void pieceMoves(ChessBoard board, int from, int color, int type, MoveList moves) {
+        pieceMoves(board, from, color, type, ~0L, moves);
+    }
+
+    /**
+     * Adds every legal move for the team
+     *
+     * @param castlingRights  the {@link CastlingRights} in effect
+     * @param enPassantSquare the square a pawn may capture onto en passant, or -1
+     */
+    public static void legalMoves(ChessBoard board, ChessGame.TeamColor color, int castlingRights,
+                                  int enPassantSquare, MoveList moves) {
+        legalMoves(board, color.ordinal(), ~0L, castlingRights, enPassantSquare, moves);
+    }
+
+    /**
+     * Adds the legal moves of the team's pieces on the squares in {@code fromMask}
+     */
+    static void legalMoves(ChessBoard board, int us, long fromMask, int castlingRights,
+                           int enPassantSquare, MoveList moves) {
+        long occupied = board.occupancy();
+        long kings = board.pieces(us, KING);
+        int king = kings == 0 ? -1 : Long.numberOfTrailingZeros(kings);
+        long checkMask = king < 0 ? ~0L : checkMask(board, king, us, occupied);
+        long pinned = king < 0 ? 0 : pinnedPieces(board, king, us, occupied);
+
+        for (long bits = board.occupancy(us) & fromMask; bits != 0; bits &= bits - 1) {
+            legalPieceMoves(board, Long.numberOfTrailingZeros(bits), us, king, checkMask, pinned, castlingRights,
+                    moves);
+        }
+        if (enPassantSquare >= 0) {
+            enPassantMoves(board, us, king, fromMask, occupied, enPassantSquare, moves);
+        }
+    }
+
+    /**
+     * Adds the legal moves of our piece on one square, other than en passant
+     *
+     * @param king      our king's square, or -1 if there is none
+     * @param checkMask from {@link #checkMask}
+     * @param pinned    from {@link #pinnedPieces}
+     */
+    static void legalPieceMoves(ChessBoard board, int from, int us, int king, long checkMask, long pinned,
+                                int castlingRights, MoveList moves) {
+        if (from == king) {
+            long occupied = board.occupancy();
+            kingMoves(board, king, us, occupied, moves);
+            if (checkMask == ~0L) {
+                castlingMoves(board, king, us, occupied, castlingRights, moves);
+            }
+            return;
+        }
+        if (checkMask == 0) {
+            return;
+        }
+        long allowed = checkMask;
+        if ((pinned & (1L << from)) != 0) {
+            allowed &= Attacks.line(king, from);
+        }
+        pieceMoves(board, from, us, board.pieceCodeAt(from) % ChessBoard.PIECE_TYPES, allowed, moves);
+    }
+
+    /**
+     * @return every square when the king is not in check; when one piece gives
+     * check, the squares that capture it or block it; and no squares in double
+     * check, when only the king can move
+     */
+    static long checkMask(ChessBoard board, int king, int us, long occupied) {
+        long checkers = board.attackersOf(king, us ^ 1, occupied);
+        if (checkers == 0) {
+            return ~0L;
+        }
+        if ((checkers & (checkers - 1)) != 0) {
+            return 0;
+        }
+        return checkers | Attacks.between(king, Long.numberOfTrailingZeros(checkers));
+    }
+
+    private static void pieceMoves(ChessBoard board, int from, int color, int type, long allowed, MoveList moves) {
+        if (type == PAWN) {
+            pawnMoves(board, from, color, allowed, moves);
+            return;
+        }
+        long occupied = board.occupancy();
+        long enemies = board.occupancy(color ^ 1);
+        long targets = Attacks.of(TYPES[type], color, from, occupied) & ~board.occupancy(color) & allowed;
+        for (; targets != 0; targets &= targets - 1) {
+            int to = Long.numberOfTrailingZeros(targets);
+            int flags = (enemies & (1L << to)) != 0 ? PackedMove.CAPTURE : 0;
+            moves.add(PackedMove.of(from, to) | flags);
+        }
+    }
+
+    private static void pawnMoves(ChessBoard board, int from, int color, long allowed, MoveList moves) {
+        long occupied = board.occupancy();
+        int step = color == 0 ? 8 : -8;
+
+        // Forward one square, and two from the starting row
+        int to = from + step;
+        if (to >= 0 && to < 64 && (occupied & (1L << to)) == 0) {
+            if ((allowed & (1L << to)) != 0) {
+                addPawnMove(from, to, color, 0, moves);
+            }
+            int startRow = color == 0 ? 1 : 6;
+            int twoTo = to + step;
+            if ((from >>> 3) == startRow && (occupied & (1L << twoTo)) == 0 && (allowed & (1L << twoTo)) != 0) {
+                moves.add(PackedMove.of(from, twoTo) | PackedMove.DOUBLE_PUSH);
+            }
+        }
+
+        // Diagonal captures
+        long captures = Attacks.pawn(color, from) & board.occupancy(color ^ 1) & allowed;
+        for (; captures != 0; captures &= captures - 1) {
+            addPawnMove(from, Long.numberOfTrailingZeros(captures), color, PackedMove.CAPTURE, moves);
+        }
+    }
+
+    private static void addPawnMove(int from, int to, int color, int flags, MoveList moves) {
+        boolean promotes = color == 0 ? to >= 56 : to < 8;
+        if (promotes) {
+            for (ChessPiece.PieceType promotion : PROMOTIONS) {
+                moves.add(PackedMove.of(from, to, promotion, flags));
+            }
+        } else {
+            moves.add(PackedMove.of(from, to) | flags);
+        }
+    }
+
+    /**
+     * King steps onto squares no enemy piece attacks. The king is lifted off the
+     * board for the test so it cannot hide behind itself on a checking ray.
+     */
+    private static void kingMoves(ChessBoard board, int king, int us, long occupied, MoveList moves) {
+        long enemies = board.occupancy(us ^ 1);
+        long withoutKing = occupied ^ (1L << king);
+        long targets = Attacks.king(king) & ~board.occupancy(us);
+        for (; targets != 0; targets &= targets - 1) {
+            int to = Long.numberOfTrailingZeros(targets);
+            if (board.attackersOf(to, us ^ 1, withoutKing) == 0) {
+                int flags = (enemies & (1L << to)) != 0 ? PackedMove.CAPTURE : 0;
+                moves.add(PackedMove.of(king, to) | flags);
+            }
+        }
+    }
+
+    private static void castlingMoves(ChessBoard board, int king, int us, long occupied, int rights, MoveList moves) {
+        int home = us == 0 ? CastlingRights.WHITE_KING_HOME : CastlingRights.BLACK_KING_HOME;
+        rights = CastlingRights.of(rights, us);
+        if (king != home || rights == 0) {
+            return;
+        }
+        long rooks = board.pieces(us, ROOK);
+        int them = us ^ 1;
+        boolean kingside = (rights & (CastlingRights.WHITE_KINGSIDE | CastlingRights.BLACK_KINGSIDE)) != 0;
+        boolean queenside = (rights & (CastlingRights.WHITE_QUEENSIDE | CastlingRights.BLACK_QUEENSIDE)) != 0;
+
+        if (kingside && (rooks & (1L << (home + 3))) != 0
+                && (occupied & Attacks.between(home, home + 3)) == 0
+                && !board.isAttacked(home + 1, them) && !board.isAttacked(home + 2, them)) {
+            moves.add(PackedMove.of(home, home + 2) | PackedMove.CASTLE);
+        }
+        if (queenside && (rooks & (1L << (home - 4))) != 0
+                && (occupied & Attacks.between(home, home - 4)) == 0
+                && !board.isAttacked(home - 1, them) && !board.isAttacked(home - 2, them)) {
+            moves.add(PackedMove.of(home, home - 2) | PackedMove.CASTLE);
+        }
+    }
+
+    /**
+     * En passant removes two pawns from one rank at once, which can expose the
+     * king along that rank in a way the pin mask does not capture. Each capture
+     * is tried on a copy of the occupancy mask instead.
+     */
+    static void enPassantMoves(ChessBoard board, int us, int king, long fromMask, long occupied,
+                                       int target, MoveList moves) {
+        int them = us ^ 1;
+        int captured = target + (us == 0 ? -8 : 8);
+        if ((occupied & (1L << target)) != 0 || (board.pieces(them, PAWN) & (1L << captured)) == 0) {
+            return;
+        }
+        long pawns = Attacks.pawn(them, target) & board.pieces(us, PAWN) & fromMask;
+        for (; pawns != 0; pawns &= pawns - 1) {
+            int from = Long.numberOfTrailingZeros(pawns);
+            if (king >= 0) {
+                long after = (occupied ^ (1L << from) ^ (1L << captured)) | (1L << target);
+                if ((board.attackersOf(king, them, after) & ~(1L << captured)) != 0) {
+                    continue;
+                }
+            }
+            moves.add(PackedMove.of(from, target) | PackedMove.EN_PASSANT);
+        }
+    }
+
+    /**
+     * @return our pieces that stand alone between the king and an enemy slider
+     */
+    static long pinnedPieces(ChessBoard board, int king, int us, long occupied) {
+        int them = us ^ 1;
+        long queens = board.pieces(them, QUEEN);
+        long snipers = (Attacks.rook(king, 0) & (board.pieces(them, ROOK) | queens))
+                | (Attacks.bishop(king, 0) & (board.pieces(them, BISHOP) | queens));
+        long pinned = 0;
+        for (; snipers != 0; snipers &= snipers - 1) {
+            long blockers = Attacks.between(king, Long.numberOfTrailingZeros(snipers)) & occupied;
+            if (blockers != 0 && (blockers & (blockers - 1)) == 0) {
+                pinned |= blockers & board.occupancy(us);
+            }
+        }
+        return pinned;
+    }
+
+    /**
+     * Static exchange evaluation: the material the moving side wins or loses if
+     * both sides keep capturing on the target square, each with its least
+     * valuable piece and each free to stop when going on would lose more.
+     * Pieces behind a capturer are found as it leaves. No moves are made and
+     * pins are ignored.
+     *
+     * @param move a move for the piece on its start square, usually a capture
+     * @return centipawns, 0 for a quiet move to a safe square and negative when
+     * the moving piece would be lost for less
+     */
+    public static int see(ChessBoard board, ChessMove move) {
+        return see(board, PackedMove.fromChessMove(move), new int[MAX_EXCHANGES]);
+    }
+
+    /**
+     * @param gain scratch space of at least {@link #MAX_EXCHANGES}, so search can
+     *             evaluate exchanges without allocating
+     */
+    static int see(ChessBoard board, int move, int[] gain) {
+        int from = PackedMove.from(move);
+        int to = PackedMove.to(move);
+        int moving = board.pieceCodeAt(from);
+        int side = moving / ChessBoard.PIECE_TYPES;
+        int type = moving % ChessBoard.PIECE_TYPES;
+        long occupied = board.occupancy() & ~(1L << from);
+
+        int victim = board.pieceCodeAt(to);
+        gain[0] = victim < 0 ? 0 : EXCHANGE_VALUES[victim % ChessBoard.PIECE_TYPES];
+        if (type == PAWN && victim < 0 && (from & 7) != (to & 7)) {
+            // En passant: the captured pawn is beside the target square
+            gain[0] = EXCHANGE_VALUES[PAWN];
+            occupied &= ~(1L << (to + (side == 0 ? -8 : 8)));
+        }
+        int onSquare = EXCHANGE_VALUES[type];
+        ChessPiece.PieceType promotion = PackedMove.promotion(move);
+        if (promotion != null) {
+            gain[0] += EXCHANGE_VALUES[promotion.ordinal()] - EXCHANGE_VALUES[PAWN];
+            onSquare = EXCHANGE_VALUES[promotion.ordinal()];
+        }
+
+        int depth = 0;
+        while (depth + 1 < MAX_EXCHANGES) {
+            side ^= 1;
+            long attackers = board.attackersOf(to, side, occupied) & occupied;
+            if (attackers == 0) {
+                break;
+            }
+            int attacker = leastValuable(board, side, attackers);
+            if (attacker == KING && (board.attackersOf(to, side ^ 1, occupied) & occupied) != 0) {
+                // The king may not capture onto a defended square
+                break;
+            }
+            depth++;
+            gain[depth] = onSquare - gain[depth - 1];
+            if (Math.max(-gain[depth - 1], gain[depth]) < 0) {
+                // Neither side would choose to go on from here
+                break;
+            }
+            onSquare = EXCHANGE_VALUES[attacker];
+            occupied &= ~Long.lowestOneBit(attackers & board.pieces(side, attacker));
+        }
+        while (depth > 0) {
+            gain[depth - 1] = -Math.max(-gain[depth - 1], gain[depth]);
+            depth--;
+        }
+        return gain[0];
+    }
+
+    /**
+     * @return the type of the cheapest of the side's pieces in the mask
+     */
+    private static int leastValuable(ChessBoard board, int side, long attackers) {
+        for (int type : EXCHANGE_ORDER) {
+            if ((attackers & board.pieces(side, type)) != 0) {
+                return type;
+            }
+        }
+        throw new IllegalStateException("No attacker in mask");
+    }
+}
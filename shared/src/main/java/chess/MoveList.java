@@ -0,0 +1,79 @@
+package chess;
+
+import java.util.Arrays;
+
+/**
+ * A reusable buffer of {@link PackedMove packed moves}. Callers keep one list
+ * per search depth or per thread and {@link #clear()} it between uses, so
+ * generating moves does not allocate.
+ */
+public final class MoveList {
+
+    /** More than the largest number of moves in any reachable position (218) */
+    public static final int DEFAULT_CAPACITY = 256;
+
+    private int[] moves;
+    private int size;
+
+    public MoveList() {
+        this(DEFAULT_CAPACITY);
+    }
+
+    public MoveList(int capacity) {
+        this.moves = new int[capacity];
+    }
+
+    public void add(int move) {
+        if (size == moves.length) {
+            moves = Arrays.copyOf(moves, Math.max(8, size * 2));
+        }
+        moves[size++] = move;
+    }
+
+    public int get(int index) {
+        return moves[index];
+    }
+
+    public void set(int index, int move) {
+        moves[index] = move;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    public void clear() {
+        size = 0;
+    }
+
+    /**
+     * Shrinks the list to its first {@code size} moves
+     */
+    public void truncate(int size) {
+        this.size = size;
+    }
+
+    /**
+     * @return whether the list holds the move, ignoring flags
+     */
+    public boolean contains(int move) {
+        int target = PackedMove.withoutFlags(move);
+        for (int i = 0; i < size; i++) {
+            if (PackedMove.withoutFlags(moves[i]) == target) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * @return the moves as a fresh array
+     */
+    public int[] toArray() {
+        return Arrays.copyOf(moves, size);
+    }
+}
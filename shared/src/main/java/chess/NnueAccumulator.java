@@ -0,0 +1,116 @@
+package chess;
+
+/**
+ * The hidden layer of an {@link NnueWeights} network before activation, seen
+ * from both teams' sides, for one board. Adding or removing a piece adds or
+ * subtracts one row of input weights per side, so a move costs a few rows
+ * instead of a pass over every piece. Sums wrap as 16-bit integers, which
+ * makes removing a piece the exact inverse of adding it.
+ * <p>
+ * While attached, the accumulator listens to its board and scores only that
+ * board's positions. It is not thread safe; it belongs to whoever plays moves
+ * on the board.
+ */
+final class NnueAccumulator implements PieceListener, Evaluator {
+
+    private final NnueWeights weights;
+    /** Indexed by perspective: 0 for White, 1 for Black */
+    private final short[][] hidden;
+    private final ChessBoard board;
+
+    /**
+     * Builds the sums from the pieces on the board, without listening to it
+     */
+    NnueAccumulator(NnueWeights weights, ChessBoard board) {
+        this.weights = weights;
+        this.hidden = new short[2][weights.hiddenSize()];
+        this.board = board;
+        for (short[] sums : hidden) {
+            System.arraycopy(weights.hiddenBiases(), 0, sums, 0, sums.length);
+        }
+        for (long occupied = board.occupancy(); occupied != 0; occupied &= occupied - 1) {
+            int square = Long.numberOfTrailingZeros(occupied);
+            pieceAdded(square, board.pieceCodeAt(square));
+        }
+    }
+
+    /**
+     * @throws IllegalArgumentException if the game is not on this accumulator's board
+     */
+    @Override
+    public int evaluate(ChessGame game) {
+        if (game.getBoard() != board) {
+            throw new IllegalArgumentException("Accumulator belongs to another board");
+        }
+        return score(game.getTeamTurn().ordinal());
+    }
+
+    /**
+     * @return the network's output for the team to move, in centipawns
+     */
+    int score(int mover) {
+        short[] us = hidden[mover];
+        short[] them = hidden[mover ^ 1];
+        short[] output = weights.outputWeights();
+        int size = us.length;
+
+        int sum = weights.outputBias();
+        for (int i = 0; i < size; i++) {
+            sum += clippedRelu(us[i]) * output[i];
+        }
+        for (int i = 0; i < size; i++) {
+            sum += clippedRelu(them[i]) * output[size + i];
+        }
+        long score = (long) sum * NnueWeights.SCALE / (NnueWeights.QA * NnueWeights.QB);
+        return (int) Math.max(-NnueEvaluator.MAX_SCORE, Math.min(NnueEvaluator.MAX_SCORE, score));
+    }
+
+    /**
+     * Starts listening to the board, which must be the game's
+     */
+    void listen() {
+        board.setListener(this);
+    }
+
+    @Override
+    public Evaluator attach(ChessGame game) {
+        var accumulator = new NnueAccumulator(weights, game.getBoard());
+        accumulator.listen();
+        return accumulator;
+    }
+
+    @Override
+    public void detach() {
+        if (board.listener() == this) {
+            board.setListener(null);
+        }
+    }
+
+    @Override
+    public void pieceAdded(int square, int code) {
+        short[] rows = weights.inputWeights();
+        for (int perspective = 0; perspective < 2; perspective++) {
+            short[] sums = hidden[perspective];
+            int offset = weights.inputOffset(perspective, square, code);
+            for (int i = 0; i < sums.length; i++) {
+                sums[i] += rows[offset + i];
+            }
+        }
+    }
+
+    @Override
+    public void pieceRemoved(int square, int code) {
+        short[] rows = weights.inputWeights();
+        for (int perspective = 0; perspective < 2; perspective++) {
+            short[] sums = hidden[perspective];
+            int offset = weights.inputOffset(perspective, square, code);
+            for (int i = 0; i < sums.length; i++) {
+                sums[i] -= rows[offset + i];
+            }
+        }
+    }
+
+    private static int clippedRelu(short value) {
+        return Math.min(Math.max(value, 0), NnueWeights.QA);
+    }
+}
@@ -0,0 +1,41 @@
+package chess;
+
+/**
+ * Scores positions with a small neural network whose hidden layer is kept up
+ * to date as moves are made and unmade, in the style of NNUE engines. See
+ * {@link NnueWeights} for the network.
+ * <p>
+ * A search {@linkplain #attach(ChessGame) attaches} to its own copy of the
+ * position and gets an {@link NnueAccumulator} that listens to that board, so
+ * each move costs a few rows of weights. Evaluating a game without attaching
+ * builds the hidden layer from every piece and leaves the game's board alone.
+ * The evaluator itself holds only the weights, so one instance and one copy of
+ * the weights can be shared by every search thread.
+ */
+public final class NnueEvaluator implements Evaluator {
+
+    /** Scores are kept well clear of mate scores */
+    public static final int MAX_SCORE = 10_000;
+
+    private final NnueWeights weights;
+
+    public NnueEvaluator(NnueWeights weights) {
+        this.weights = weights;
+    }
+
+    /**
+     * Builds the hidden layer from scratch, which allocates; search attaches
+     * instead
+     */
+    @Override
+    public int evaluate(ChessGame game) {
+        return new NnueAccumulator(weights, game.getBoard()).score(game.getTeamTurn().ordinal());
+    }
+
+    @Override
+    public Evaluator attach(ChessGame game) {
+        var accumulator = new NnueAccumulator(weights, game.getBoard());
+        accumulator.listen();
+        return accumulator;
+    }
+}
@@ -0,0 +1,164 @@
+package chess;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * The weights of a small efficiently updatable neural network for
+ * {@link NnueEvaluator}. The network has one input for each piece on each
+ * square, seen from each team's side of the board, a hidden layer that each
+ * team's inputs feed separately, and one output:
+ * <pre>
+ *   768 inputs -> hidden x 2 perspectives -> clipped ReLU -> 1 output
+ * </pre>
+ * Both perspectives share the input weights. An input seen from Black's side
+ * has its colors swapped and its board flipped, so the network scores mirrored
+ * positions the same for the team to move.
+ * <p>
+ * Weights are quantized to 16-bit integers: hidden values are clipped to
+ * 0..{@value #QA}, and output weights are scaled by {@value #QB}. The file is
+ * little-endian:
+ * <pre>
+ *   int   magic "NNUE", version 1, hidden size
+ *   short input weights, [input][hidden]
+ *   short hidden biases, [hidden]
+ *   short output weights, [hidden] for the team to move then [hidden] for the other
+ *   int   output bias
+ * </pre>
+ * Weights never change once loaded, so one instance can be shared by every
+ * thread that evaluates.
+ */
+public final class NnueWeights {
+
+    /** 6 piece types x 2 colors x 64 squares */
+    public static final int INPUTS = 2 * ChessBoard.PIECE_TYPES * 64;
+    /** Hidden values are clipped to this, which stands for 1.0 */
+    public static final int QA = 255;
+    /** Output weights are multiplied by this */
+    public static final int QB = 64;
+    /** Centipawns for an output of 1.0 */
+    public static final int SCALE = 400;
+
+    private static final int MAGIC = 'N' | 'N' << 8 | 'U' << 16 | 'E' << 24;
+    private static final int VERSION = 1;
+    private static final int HEADER_BYTES = 3 * Integer.BYTES;
+
+    private final int hidden;
+    private final short[] inputWeights;
+    private final short[] hiddenBiases;
+    private final short[] outputWeights;
+    private final int outputBias;
+
+    /**
+     * @param inputWeights  {@link #INPUTS} x hidden, indexed by input * hidden + neuron
+     * @param hiddenBiases  one per hidden neuron
+     * @param outputWeights two per hidden neuron: the team to move's, then the other team's
+     * @throws IllegalArgumentException if the lengths disagree, or if the output
+     *                                  weights are large enough to overflow the output sum
+     */
+    public NnueWeights(short[] inputWeights, short[] hiddenBiases, short[] outputWeights, int outputBias) {
+        int hidden = hiddenBiases.length;
+        if (hidden == 0 || inputWeights.length != INPUTS * hidden || outputWeights.length != 2 * hidden) {
+            throw new IllegalArgumentException("Expected " + INPUTS + " x " + hidden + " input weights and "
+                    + 2 * hidden + " output weights");
+        }
+        long largest = Math.abs((long) outputBias);
+        for (short weight : outputWeights) {
+            largest += (long) QA * Math.abs(weight);
+        }
+        if (largest > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("Output weights could overflow");
+        }
+        this.hidden = hidden;
+        this.inputWeights = inputWeights.clone();
+        this.hiddenBiases = hiddenBiases.clone();
+        this.outputWeights = outputWeights.clone();
+        this.outputBias = outputBias;
+    }
+
+    /**
+     * Reads weights through a memory mapping of the file, so loading is one bulk
+     * copy per array however large the network is
+     *
+     * @throws IOException if the file cannot be read or is not a network of this format
+     */
+    public static NnueWeights load(Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            ByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size())
+                    .order(ByteOrder.LITTLE_ENDIAN);
+            if (buffer.remaining() < HEADER_BYTES || buffer.getInt() != MAGIC || buffer.getInt() != VERSION) {
+                throw new IOException(file + " is not a version " + VERSION + " network");
+            }
+            int hidden = buffer.getInt();
+            if (hidden <= 0 || buffer.remaining() != fileBytes(hidden) - HEADER_BYTES) {
+                throw new IOException(file + " has the wrong size for " + hidden + " hidden neurons");
+            }
+            short[] inputWeights = new short[INPUTS * hidden];
+            short[] hiddenBiases = new short[hidden];
+            short[] outputWeights = new short[2 * hidden];
+            var shorts = buffer.asShortBuffer();
+            shorts.get(inputWeights).get(hiddenBiases).get(outputWeights);
+            int outputBias = buffer.getInt(buffer.capacity() - Integer.BYTES);
+            return new NnueWeights(inputWeights, hiddenBiases, outputWeights, outputBias);
+        } catch (IllegalArgumentException e) {
+            throw new IOException(file + ": " + e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Writes the weights in the format {@link #load(Path)} reads
+     */
+    public void save(Path file) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate((int) fileBytes(hidden)).order(ByteOrder.LITTLE_ENDIAN);
+        buffer.putInt(MAGIC).putInt(VERSION).putInt(hidden);
+        buffer.asShortBuffer().put(inputWeights).put(hiddenBiases).put(outputWeights);
+        buffer.putInt(buffer.capacity() - Integer.BYTES, outputBias);
+        buffer.rewind();
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING)) {
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+        }
+    }
+
+    public int hiddenSize() {
+        return hidden;
+    }
+
+    private static long fileBytes(int hidden) {
+        return HEADER_BYTES + (long) (INPUTS + 3) * hidden * Short.BYTES + Integer.BYTES;
+    }
+
+    /**
+     * @param perspective 0 to see the board as White, 1 as Black
+     * @return where the piece's input weights start in {@link #inputWeights()}
+     */
+    int inputOffset(int perspective, int square, int code) {
+        if (perspective == 1) {
+            code = (code + ChessBoard.PIECE_TYPES) % (2 * ChessBoard.PIECE_TYPES);
+            square ^= 56;
+        }
+        return (code * 64 + square) * hidden;
+    }
+
+    short[] inputWeights() {
+        return inputWeights;
+    }
+
+    short[] hiddenBiases() {
+        return hiddenBiases;
+    }
+
+    short[] outputWeights() {
+        return outputWeights;
+    }
+
+    int outputBias() {
+        return outputBias;
+    }
+}
@@ -0,0 +1,107 @@
+package chess;
+
+/**
+ * Encodes a chess move in a single {@code int} so move generation can fill
+ * primitive buffers instead of allocating a {@link ChessMove} per move.
+ * <p>
+ * Layout, from the lowest bit:
+ * <pre>
+ *   bits  0-5   start square, (row - 1) * 8 + (column - 1)
+ *   bits  6-11  end square
+ *   bits 12-14  promotion piece, 0 for none or {@link ChessPiece.PieceType#ordinal()} + 1
+ *   bits 15-18  flags ({@link #CAPTURE}, {@link #DOUBLE_PUSH}, ...)
+ * </pre>
+ * Two packed moves are equal as {@link ChessMove}s when their low 15 bits match.
+ */
+public final class PackedMove {
+
+    public static final int NONE = 0;
+
+    public static final int CAPTURE = 1 << 15;
+    public static final int DOUBLE_PUSH = 1 << 16;
+    public static final int EN_PASSANT = 1 << 17;
+    public static final int CASTLE = 1 << 18;
+
+    private static final int SQUARE_MASK = 0x3F;
+    private static final int MOVE_MASK = 0x7FFF;
+    private static final ChessPiece.PieceType[] TYPES = ChessPiece.PieceType.values();
+
+    private PackedMove() {
+    }
+
+    public static int of(int from, int to) {
+        return from | (to << 6);
+    }
+
+    public static int of(int from, int to, ChessPiece.PieceType promotion, int flags) {
+        int promo = promotion == null ? 0 : promotion.ordinal() + 1;
+        return from | (to << 6) | (promo << 12) | flags;
+    }
+
+    public static int from(int move) {
+        return move & SQUARE_MASK;
+    }
+
+    public static int to(int move) {
+        return (move >>> 6) & SQUARE_MASK;
+    }
+
+    /**
+     * @return the promotion piece, or null if the move is not a promotion
+     */
+    public static ChessPiece.PieceType promotion(int move) {
+        int promo = (move >>> 12) & 7;
+        return promo == 0 ? null : TYPES[promo - 1];
+    }
+
+    public static boolean isPromotion(int move) {
+        return (move & (7 << 12)) != 0;
+    }
+
+    public static boolean isCapture(int move) {
+        return (move & (CAPTURE | EN_PASSANT)) != 0;
+    }
+
+    public static boolean hasFlag(int move, int flag) {
+        return (move & flag) != 0;
+    }
+
+    /**
+     * @return the move without its flags, suitable for comparing against
+     * {@link #fromChessMove(ChessMove)}
+     */
+    public static int withoutFlags(int move) {
+        return move & MOVE_MASK;
+    }
+
+    public static ChessMove toChessMove(int move) {
+        return new ChessMove(ChessPosition.ofSquare(from(move)), ChessPosition.ofSquare(to(move)), promotion(move));
+    }
+
+    /**
+     * Packs a move without flags. Use {@link #withoutFlags(int)} to compare it
+     * against generated moves.
+     */
+    public static int fromChessMove(ChessMove move) {
+        return of(ChessBoard.squareOf(move.getStartPosition()), ChessBoard.squareOf(move.getEndPosition()),
+                move.getPromotionPiece(), 0);
+    }
+
+    /**
+     * @return the move in coordinate notation, such as {@code e2e4} or {@code a7a8q}
+     */
+    public static String toString(int move) {
+        StringBuilder sb = new StringBuilder(5);
+        appendSquare(sb, from(move));
+        appendSquare(sb, to(move));
+        ChessPiece.PieceType promotion = promotion(move);
+        if (promotion != null) {
+            sb.append(ChessPiece.of(ChessGame.TeamColor.BLACK, promotion).toChar());
+        }
+        return sb.toString();
+    }
+
+    private static void appendSquare(StringBuilder sb, int square) {
+        sb.append((char) ('a' + (square & 7))).append((char) ('1' + (square >>> 3)));
+    }
+}
@@ -0,0 +1,180 @@
+package chess;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+import java.util.function.Function;
+
+/**
+ * Runs perft and bulk position evaluation on a {@link ForkJoinPool}. The move
+ * tree is split at the root and below, and every subtree task plays its move on
+ * its own copy of the game, so no board is ever shared between threads and the
+ * caller's game is never modified.
+ */
+public final class ParallelPerft {
+
+    /**
+     * Subtrees this shallow are counted on one thread, since splitting them costs
+     * more than it saves
+     */
+    static final int SEQUENTIAL_DEPTH = 3;
+
+    /**
+     * Evaluation batches this small are not split further
+     */
+    static final int SEQUENTIAL_POSITIONS = 16;
+
+    private ParallelPerft() {
+    }
+
+    /**
+     * Counts the leaf nodes of the legal move tree on the common pool
+     *
+     * @see Perft#perft(ChessGame, int)
+     */
+    public static long perft(ChessGame game, int depth) {
+        return perft(game, depth, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Counts the leaf nodes of the legal move tree on the given pool
+     *
+     * @param game  the position to start from; it is not modified
+     * @param depth the number of plies to search, at least 1
+     * @param pool  the pool to run the subtree tasks on
+     * @return the number of move sequences of exactly that length
+     */
+    public static long perft(ChessGame game, int depth, ForkJoinPool pool) {
+        if (depth < 1) {
+            throw new IllegalArgumentException("depth must be at least 1");
+        }
+        return pool.invoke(new PerftTask(new ChessGame(game), depth, null));
+    }
+
+    /**
+     * Counts the leaf nodes of the legal move tree on the given pool, with every
+     * thread sharing subtree counts through the table
+     *
+     * @see Perft#perft(ChessGame, int, TranspositionTable)
+     */
+    public static long perft(ChessGame game, int depth, ForkJoinPool pool, TranspositionTable table) {
+        if (depth < 1) {
+            throw new IllegalArgumentException("depth must be at least 1");
+        }
+        return pool.invoke(new PerftTask(new ChessGame(game), depth, table));
+    }
+
+    /**
+     * Applies a function to many positions in parallel on the common pool
+     *
+     * @see #evaluate(List, Function, ForkJoinPool)
+     */
+    public static <R> List<R> evaluate(List<ChessGame> games, Function<? super ChessGame, ? extends R> evaluator) {
+        return evaluate(games, evaluator, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Applies a function to many positions in parallel. The function receives a
+     * private copy of each game, so it may play moves on it freely.
+     *
+     * @param games     the positions to evaluate; they are not modified
+     * @param evaluator the function to apply to each position
+     * @param pool      the pool to run the batches on
+     * @return the results, in the same order as the positions
+     */
+    public static <R> List<R> evaluate(List<ChessGame> games, Function<? super ChessGame, ? extends R> evaluator,
+                                       ForkJoinPool pool) {
+        ChessGame[] positions = games.toArray(new ChessGame[0]);
+        Object[] results = new Object[positions.length];
+        pool.invoke(new EvaluateTask<>(positions, evaluator, results, 0, positions.length));
+
+        List<R> list = new ArrayList<>(results.length);
+        for (Object result : results) {
+            @SuppressWarnings("unchecked")
+            R r = (R) result;
+            list.add(r);
+        }
+        return list;
+    }
+
+    private static final class PerftTask extends RecursiveTask<Long> {
+        private final ChessGame game;
+        private final int depth;
+        private final TranspositionTable table;
+
+        /**
+         * @param game  a copy owned by this task
+         * @param table the shared table, or null
+         */
+        PerftTask(ChessGame game, int depth, TranspositionTable table) {
+            this.game = game;
+            this.depth = depth;
+            this.table = table;
+        }
+
+        @Override
+        protected Long compute() {
+            if (depth <= SEQUENTIAL_DEPTH) {
+                return table == null ? Perft.perft(game, depth) : Perft.perft(game, depth, table);
+            }
+            long key = 0;
+            if (table != null) {
+                key = TranspositionTable.perftKey(game.zobristKey(), depth);
+                long entry = table.probe(key);
+                if (TranspositionTable.isPerft(entry)) {
+                    return TranspositionTable.nodes(entry);
+                }
+            }
+            MoveList moves = new MoveList();
+            game.legalMoves(moves);
+
+            PerftTask[] children = new PerftTask[moves.size()];
+            for (int i = 0; i < children.length; i++) {
+                ChessGame child = new ChessGame(game);
+                child.applyMove(moves.get(i));
+                children[i] = new PerftTask(child, depth - 1, table);
+            }
+            long nodes = 0;
+            for (PerftTask child : invokeAll(Arrays.asList(children))) {
+                nodes += child.join();
+            }
+            if (table != null) {
+                table.store(key, TranspositionTable.perftEntry(depth, nodes));
+            }
+            return nodes;
+        }
+    }
+
+    private static final class EvaluateTask<R> extends RecursiveTask<Void> {
+        private final ChessGame[] games;
+        private final Function<? super ChessGame, ? extends R> evaluator;
+        private final Object[] results;
+        private final int start;
+        private final int end;
+
+        EvaluateTask(ChessGame[] games, Function<? super ChessGame, ? extends R> evaluator, Object[] results,
+                     int start, int end) {
+            this.games = games;
+            this.evaluator = evaluator;
+            this.results = results;
+            this.start = start;
+            this.end = end;
+        }
+
+        @Override
+        protected Void compute() {
+            if (end - start <= SEQUENTIAL_POSITIONS) {
+                for (int i = start; i < end; i++) {
+                    results[i] = evaluator.apply(new ChessGame(games[i]));
+                }
+                return null;
+            }
+            int middle = (start + end) >>> 1;
+            invokeAll(new EvaluateTask<>(games, evaluator, results, start, middle),
+                    new EvaluateTask<>(games, evaluator, results, middle, end));
+            return null;
+        }
+    }
+}
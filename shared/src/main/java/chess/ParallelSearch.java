@@ -0,0 +1,121 @@
+package chess;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+
+/**
+ * Searches one position on several threads at once with Lazy SMP: every
+ * thread runs its own {@link Search} of the whole tree, and they share one
+ * {@link TranspositionTable}. The threads do not divide the work between them.
+ * Instead, each one finds the scores and best moves the others have already
+ * stored and skips those subtrees. Half of the helpers start one ply deeper
+ * than the main search, so the threads spread out over the tree rather than
+ * searching it in lockstep.
+ * <p>
+ * The main search runs on the calling thread and the helpers on the given
+ * executor. When the main search finishes, the helpers are stopped and the
+ * result comes from whichever thread finished the deepest iteration. The
+ * node count covers every thread.
+ * <p>
+ * One instance runs one search at a time. The executor may be shared between
+ * instances.
+ */
+public final class ParallelSearch {
+
+    private final Search[] searches;
+    private final ExecutorService helpers;
+
+    /**
+     * @param evaluator used by every thread at once, so it must be thread safe
+     * @param threads   the number of threads searching, including the caller's
+     * @param helpers   runs the other {@code threads - 1} searches. It should
+     *                  have that many threads free, or the helpers start late.
+     */
+    public ParallelSearch(TranspositionTable table, Evaluator evaluator, int threads, ExecutorService helpers) {
+        if (threads < 1) {
+            throw new IllegalArgumentException("threads must be at least 1");
+        }
+        this.searches = new Search[threads];
+        for (int i = 0; i < threads; i++) {
+            searches[i] = new Search(table, evaluator);
+        }
+        this.helpers = helpers;
+    }
+
+    public int threads() {
+        return searches.length;
+    }
+
+    /**
+     * @see Search#search(ChessGame, long)
+     */
+    public SearchResult search(ChessGame position, long millis) {
+        return search(position, Search.MAX_PLY - 1, millis);
+    }
+
+    /**
+     * @see Search#search(ChessGame, int, long)
+     */
+    public SearchResult search(ChessGame position, int maxDepth, long millis) {
+        for (Search search : searches) {
+            search.clearStop();
+        }
+        List<Future<SearchResult>> running = new ArrayList<>(searches.length - 1);
+        for (int i = 1; i < searches.length; i++) {
+            Search helper = searches[i];
+            int firstDepth = 1 + i % 2;
+            running.add(helpers.submit(() -> helper.run(position, firstDepth, maxDepth, millis)));
+        }
+
+        SearchResult best = searches[0].run(position, 1, maxDepth, millis);
+        long elapsed = best.millis();
+        long nodes = best.nodes();
+        for (int i = 1; i < searches.length; i++) {
+            searches[i].stop();
+        }
+        for (Future<SearchResult> future : running) {
+            if (future.cancel(false)) {
+                // Never started, since the executor was busy
+                continue;
+            }
+            SearchResult result = join(future);
+            nodes += result.nodes();
+            if (result.depth() > best.depth() && result.bestMove() != null) {
+                best = result;
+            }
+        }
+        return new SearchResult(best.bestMove(), best.score(), best.depth(), nodes, elapsed);
+    }
+
+    /**
+     * Stops a search running on another thread, which then returns the best
+     * move found so far
+     */
+    public void stop() {
+        for (Search search : searches) {
+            search.stop();
+        }
+    }
+
+    private static SearchResult join(Future<SearchResult> future) {
+        boolean interrupted = false;
+        try {
+            while (true) {
+                try {
+                    return future.get();
+                } catch (InterruptedException e) {
+                    interrupted = true;
+                }
+            }
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Helper search failed", e.getCause());
+        } finally {
+            if (interrupted) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+}
@@ -0,0 +1,77 @@
+package chess;
+
+/**
+ * Counts the leaf nodes of the legal move tree to a fixed depth ("perft").
+ * Moves are made and unmade on a single copy of the game.
+ * The totals for well-known positions are published, which makes perft the
+ * standard check that move generation is correct, and nodes per second a
+ * direct measure of how fast it is.
+ */
+public final class Perft {
+
+    private Perft() {
+    }
+
+    /**
+     * @param game  the position to start from; it is not modified
+     * @param depth the number of plies to search, at least 1
+     * @return the number of move sequences of exactly that length
+     */
+    public static long perft(ChessGame game, int depth) {
+        if (depth < 1) {
+            throw new IllegalArgumentException("depth must be at least 1");
+        }
+        MoveList[] lists = new MoveList[depth];
+        for (int i = 0; i < depth; i++) {
+            lists[i] = new MoveList();
+        }
+        return perft(new ChessGame(game), depth, lists, null);
+    }
+
+    /**
+     * Counts leaf nodes, reusing the counts of subtrees already stored in the
+     * table and storing the ones it computes. Transpositions are common deep in
+     * the tree, so this is much faster for repeated or deep runs.
+     *
+     * @param table the table to share counts through; other threads may use it
+     *              at the same time
+     */
+    public static long perft(ChessGame game, int depth, TranspositionTable table) {
+        if (depth < 1) {
+            throw new IllegalArgumentException("depth must be at least 1");
+        }
+        MoveList[] lists = new MoveList[depth];
+        for (int i = 0; i < depth; i++) {
+            lists[i] = new MoveList();
+        }
+        return perft(new ChessGame(game), depth, lists, table);
+    }
+
+    private static long perft(ChessGame game, int depth, MoveList[] lists, TranspositionTable table) {
+        long key = 0;
+        if (table != null && depth > 1) {
+            key = TranspositionTable.perftKey(game.zobristKey(), depth);
+            long entry = table.probe(key);
+            if (TranspositionTable.isPerft(entry)) {
+                return TranspositionTable.nodes(entry);
+            }
+        }
+
+        MoveList moves = lists[depth - 1];
+        moves.clear();
+        game.legalMoves(moves);
+        if (depth == 1) {
+            return moves.size();
+        }
+        long nodes = 0;
+        for (int i = 0; i < moves.size(); i++) {
+            game.applyMove(moves.get(i));
+            nodes += perft(game, depth - 1, lists, table);
+            game.retractMove();
+        }
+        if (table != null) {
+            table.store(key, TranspositionTable.perftEntry(depth, nodes));
+        }
+        return nodes;
+    }
+}
@@ -0,0 +1,16 @@
+package chess;
+
+/**
+ * Told by a {@link ChessBoard} of each piece added to or removed from it, so
+ * that state derived from the pieces can be updated as moves are made and
+ * unmade instead of being rebuilt from the whole board.
+ */
+interface PieceListener {
+
+    /**
+     * @param code the piece as color * PIECE_TYPES + type ordinal
+     */
+    void pieceAdded(int square, int code);
+
+    void pieceRemoved(int square, int code);
+}
@@ -0,0 +1,16 @@
+package chess;
+
+/**
+ * Scores material and piece placement with {@link PieceSquareTables}, tapered
+ * from midgame to endgame values as pieces come off the board. The board keeps
+ * the sums up to date as pieces move, so an evaluation is a few arithmetic
+ * operations.
+ */
+public final class PieceSquareEvaluator implements Evaluator {
+
+    @Override
+    public int evaluate(ChessGame game) {
+        int score = game.getBoard().pieceSquareScore();
+        return game.getTeamTurn() == ChessGame.TeamColor.WHITE ? score : -score;
+    }
+}
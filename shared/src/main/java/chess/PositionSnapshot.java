@@ -0,0 +1,98 @@
+package chess;
+
+import java.util.Objects;
+
+/**
+ * An immutable copy of a game's position: the pieces, the team to move,
+ * castling rights and the en passant square.
+ * <p>
+ * {@link ChessGame} publishes a new snapshot after every move, so any number of
+ * threads can read or serialize the current position without locking while a
+ * single thread keeps playing the game. A bitboard position is small enough
+ * that copying it per move is cheaper than sharing structure between
+ * snapshots.
+ */
+public final class PositionSnapshot {
+
+    private final ChessBoard board;
+    private final ChessGame.TeamColor team;
+    private final int castlingRights;
+    private final int enPassantSquare;
+
+    /**
+     * @param board copied, so later changes to it do not show in the snapshot
+     */
+    PositionSnapshot(ChessBoard board, ChessGame.TeamColor team, int castlingRights, int enPassantSquare) {
+        this.board = new ChessBoard(board);
+        this.team = team;
+        this.castlingRights = castlingRights;
+        this.enPassantSquare = enPassantSquare;
+    }
+
+    public ChessGame.TeamColor getTeamTurn() { return team; }
+
+    /**
+     * @return the piece at the position, or null if the square is empty
+     */
+    public ChessPiece getPiece(ChessPosition position) {
+        return board.getPiece(position);
+    }
+
+    /**
+     * @return the {@link CastlingRights} still available to both teams
+     */
+    public int getCastlingRights() { return castlingRights; }
+
+    /**
+     * @return the square the team to move may capture onto en passant, or null
+     */
+    public ChessPosition getEnPassantPosition() {
+        return enPassantSquare < 0 ? null : ChessPosition.ofSquare(enPassantSquare);
+    }
+
+    /**
+     * @return the same key as {@link ChessGame#zobristKey()} for the position
+     */
+    public long zobristKey() {
+        return board.zobristKey() ^ Zobrist.side(team) ^ Zobrist.castling(castlingRights)
+                ^ Zobrist.enPassant(enPassantSquare);
+    }
+
+    /**
+     * @return a new board holding the snapshot's pieces
+     */
+    public ChessBoard toBoard() {
+        return new ChessBoard(board);
+    }
+
+    /**
+     * @return a new game starting from the snapshot's position
+     */
+    public ChessGame toGame() {
+        return new ChessGame(new ChessBoard(board), team, castlingRights, enPassantSquare);
+    }
+
+    ChessBoard board() { return board; }
+
+    int enPassantSquare() { return enPassantSquare; }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof PositionSnapshot other)) {
+            return false;
+        }
+        return team == other.team && castlingRights == other.castlingRights
+                && enPassantSquare == other.enPassantSquare && board.equals(other.board);
+    }
+
+    @Override
+    public int hashCode() { return Long.hashCode(zobristKey()); }
+
+    @Override
+    public String toString() {
+        return "PositionSnapshot{team=" + team + ", board=" + board + '}';
+    }
+}
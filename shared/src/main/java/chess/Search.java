@@ -0,0 +1,435 @@
+package chess;
+
+/**
+ * Finds a good move with a negamax alpha-beta search. Iterative deepening
+ * searches one ply deeper at a time until the time budget runs out, so there
+ * is always a finished iteration's move to play. Moves are tried in the order
+ * most likely to cut the search short: the move stored for the position in the
+ * {@link TranspositionTable}, captures by most valuable victim and then least
+ * valuable attacker, two killer moves per ply, quiet moves by how often they
+ * have caused a cutoff, and last the captures that static exchange evaluation
+ * says lose material. At the horizon a quiescence search keeps playing
+ * captures that do not lose material so that a position is never scored in
+ * the middle of an exchange.
+ * <p>
+ * The time budget is a hard limit. The clock is checked every
+ * {@value #NODES_PER_CLOCK_CHECK} nodes and the search unwinds as soon as it
+ * runs out.
+ * <p>
+ * A search plays moves on its own copy of the game and keeps per-ply buffers,
+ * so an instance must only be used by one thread at a time. Several instances
+ * may share one table.
+ */
+public final class Search {
+
+    /** The score for mating on the spot; mate in n plies scores MATE - n */
+    public static final int MATE = 30000;
+    public static final int MAX_PLY = 128;
+
+    private static final int INFINITY = 32000;
+    private static final int NODES_PER_CLOCK_CHECK = 1024;
+
+    private static final int HASH_MOVE_SCORE = 1 << 30;
+    private static final int CAPTURE_SCORE = 1 << 29;
+    private static final int KILLER_SCORE = 1 << 28;
+    private static final int HISTORY_LIMIT = 1 << 27;
+    /** Below every quiet move; captures that lose material are tried last */
+    private static final int LOSING_CAPTURE_SCORE = -(1 << 20);
+
+    private final TranspositionTable table;
+    private final Evaluator evaluator;
+
+    private final MoveList[] moveLists = new MoveList[MAX_PLY];
+    private final int[][] moveScores = new int[MAX_PLY][];
+    private final int[] exchangeGains = new int[MoveGenerator.MAX_EXCHANGES];
+    private final int[][] killers = new int[MAX_PLY][2];
+    /** Cutoffs caused by quiet moves, indexed by moving piece code and target square */
+    private final int[][] history = new int[2 * ChessBoard.PIECE_TYPES][64];
+
+    private ChessGame game;
+    /** The evaluator attached to {@link #game} for the current search */
+    private Evaluator gameEvaluator;
+    private long nodes;
+    private long deadline;
+    private volatile boolean stopped;
+    private int rootBestMove;
+    private int rootBestScore;
+    /** The last finished iteration's best move, searched first at the root */
+    private int previousBestMove;
+
+    public Search(TranspositionTable table, Evaluator evaluator) {
+        this.table = table;
+        this.evaluator = evaluator;
+        for (int ply = 0; ply < MAX_PLY; ply++) {
+            moveLists[ply] = new MoveList();
+            moveScores[ply] = new int[MoveList.DEFAULT_CAPACITY];
+        }
+    }
+
+    /**
+     * Searches as deep as the time allows
+     *
+     * @param position not changed by the search
+     */
+    public SearchResult search(ChessGame position, long millis) {
+        return search(position, MAX_PLY - 1, millis);
+    }
+
+    /**
+     * @param position not changed by the search
+     * @param maxDepth the deepest iteration to run, from 1
+     * @param millis   the time budget. At least one legal move is always
+     *                 returned, even if the first iteration does not finish.
+     */
+    public SearchResult search(ChessGame position, int maxDepth, long millis) {
+        stopped = false;
+        return run(position, 1, maxDepth, millis);
+    }
+
+    /**
+     * Searches without clearing an earlier {@link #stop()}, so a search stopped
+     * before it starts returns at once
+     *
+     * @param firstDepth the first iteration's depth; helpers in a
+     *                   {@link ParallelSearch} start some threads deeper
+     */
+    SearchResult run(ChessGame position, int firstDepth, int maxDepth, long millis) {
+        long start = System.nanoTime();
+        deadline = start + millis * 1_000_000;
+        nodes = 0;
+        game = new ChessGame(position);
+        for (int[] killer : killers) {
+            killer[0] = PackedMove.NONE;
+            killer[1] = PackedMove.NONE;
+        }
+        for (int[] counts : history) {
+            for (int square = 0; square < 64; square++) {
+                counts[square] /= 8;
+            }
+        }
+
+        MoveList rootMoves = new MoveList();
+        game.legalMoves(rootMoves);
+        if (rootMoves.isEmpty()) {
+            int score = game.isInCheck(game.getTeamTurn()) ? -MATE : 0;
+            return new SearchResult(null, score, 0, 0, elapsedMillis(start));
+        }
+
+        int bestMove = rootMoves.get(0);
+        int bestScore = 0;
+        int completed = 0;
+        gameEvaluator = evaluator.attach(game);
+        try {
+            for (int depth = firstDepth; depth <= Math.min(maxDepth, MAX_PLY - 1); depth++) {
+                rootBestMove = PackedMove.NONE;
+                previousBestMove = completed > 0 ? bestMove : PackedMove.NONE;
+                int score = search(depth, 0, -INFINITY, INFINITY);
+                if (stopped) {
+                    // The previous best is searched first, so a root move that
+                    // finished is either it or a move that beat it. If none
+                    // finished, the previous best stands.
+                    if (rootBestMove != PackedMove.NONE) {
+                        bestMove = rootBestMove;
+                        bestScore = rootBestScore;
+                    }
+                    break;
+                }
+                bestMove = rootBestMove;
+                bestScore = score;
+                completed = depth;
+                if (Math.abs(score) >= MATE - MAX_PLY || System.nanoTime() - start >= (deadline - start) / 2) {
+                    // A mate will not get any shorter, and the next iteration
+                    // would probably not finish in the time left
+                    break;
+                }
+            }
+        } finally {
+            gameEvaluator.detach();
+        }
+        return new SearchResult(PackedMove.toChessMove(bestMove), bestScore, completed, nodes, elapsedMillis(start));
+    }
+
+    /**
+     * Makes a search running on another thread return as soon as possible,
+     * with the best move it has found so far
+     */
+    public void stop() {
+        stopped = true;
+    }
+
+    void clearStop() {
+        stopped = false;
+    }
+
+    private int search(int depth, int ply, int alpha, int beta) {
+        if (depth <= 0 || ply >= MAX_PLY - 1) {
+            return quiesce(ply, alpha, beta);
+        }
+        if (countNode()) {
+            return 0;
+        }
+        boolean root = ply == 0;
+        if (!root) {
+            if (game.getHalfmoveClock() >= 100 || game.repetitionCount() > 1) {
+                return 0;
+            }
+            // No mate found from here can beat one already found nearer the root
+            alpha = Math.max(alpha, -MATE + ply);
+            beta = Math.min(beta, MATE - ply - 1);
+            if (alpha >= beta) {
+                return alpha;
+            }
+        }
+
+        long key = game.zobristKey();
+        long entry = table.probe(key);
+        int hashMove = PackedMove.NONE;
+        if (entry != TranspositionTable.MISS && !TranspositionTable.isPerft(entry)) {
+            hashMove = TranspositionTable.move(entry);
+            if (!root && TranspositionTable.depth(entry) >= depth) {
+                int score = fromTable(TranspositionTable.score(entry), ply);
+                int bound = TranspositionTable.bound(entry);
+                if (bound == TranspositionTable.EXACT
+                        || bound == TranspositionTable.LOWER_BOUND && score >= beta
+                        || bound == TranspositionTable.UPPER_BOUND && score <= alpha) {
+                    return score;
+                }
+            }
+        }
+
+        if (root && previousBestMove != PackedMove.NONE) {
+            // The table entry may have been replaced since the last iteration
+            hashMove = previousBestMove;
+        }
+
+        boolean inCheck = game.isInCheck(game.getTeamTurn());
+        if (inCheck) {
+            depth++;
+        }
+        MoveList moves = moveLists[ply];
+        moves.clear();
+        game.legalMoves(moves);
+        if (moves.isEmpty()) {
+            return inCheck ? -MATE + ply : 0;
+        }
+        scoreMoves(moves, moveScores[ply], hashMove, ply);
+
+        int originalAlpha = alpha;
+        int bestScore = -INFINITY;
+        int bestMove = PackedMove.NONE;
+        for (int i = 0; i < moves.size(); i++) {
+            int move = nextMove(moves, moveScores[ply], i);
+            game.applyMove(move);
+            int score;
+            if (i == 0) {
+                score = -search(depth - 1, ply + 1, -beta, -alpha);
+            } else {
+                // Later moves are expected to fail low, which a null window proves cheaply
+                score = -search(depth - 1, ply + 1, -alpha - 1, -alpha);
+                if (score > alpha && score < beta) {
+                    score = -search(depth - 1, ply + 1, -beta, -alpha);
+                }
+            }
+            game.retractMove();
+            if (stopped) {
+                return 0;
+            }
+
+            if (score > bestScore) {
+                bestScore = score;
+                bestMove = move;
+                if (root) {
+                    rootBestMove = move;
+                    rootBestScore = score;
+                }
+            }
+            if (score > alpha) {
+                alpha = score;
+            }
+            if (alpha >= beta) {
+                if (isQuiet(move)) {
+                    rememberCutoff(move, ply, depth);
+                }
+                break;
+            }
+        }
+
+        int bound = bestScore >= beta ? TranspositionTable.LOWER_BOUND
+                : bestScore > originalAlpha ? TranspositionTable.EXACT : TranspositionTable.UPPER_BOUND;
+        table.store(key, TranspositionTable.searchEntry(bestMove, toTable(bestScore, ply), Math.min(depth, 255),
+                bound, Math.min(moves.size(), 255)));
+        return bestScore;
+    }
+
+    /**
+     * Plays captures and queen promotions until the position is quiet. The team
+     * to move may also stand pat, since it is rarely forced to capture. Moves
+     * that lose the exchange are skipped, as standing pat is at least as good.
+     * A team in check cannot stand pat, so it tries every evasion, and with none
+     * it is mated.
+     */
+    private int quiesce(int ply, int alpha, int beta) {
+        if (countNode()) {
+            return 0;
+        }
+        boolean inCheck = game.isInCheck(game.getTeamTurn());
+        if (ply >= MAX_PLY - 1) {
+            return gameEvaluator.evaluate(game);
+        }
+        if (!inCheck) {
+            int standPat = gameEvaluator.evaluate(game);
+            if (standPat >= beta) {
+                return standPat;
+            }
+            if (standPat > alpha) {
+                alpha = standPat;
+            }
+        }
+
+        MoveList moves = moveLists[ply];
+        moves.clear();
+        game.legalMoves(moves);
+        if (moves.isEmpty()) {
+            return inCheck ? -MATE + ply : 0;
+        }
+        if (!inCheck) {
+            int tactical = 0;
+            for (int i = 0; i < moves.size(); i++) {
+                int move = moves.get(i);
+                if (PackedMove.isCapture(move) || PackedMove.promotion(move) == ChessPiece.PieceType.QUEEN) {
+                    moves.set(tactical++, move);
+                }
+            }
+            moves.truncate(tactical);
+        }
+        scoreMoves(moves, moveScores[ply], PackedMove.NONE, ply);
+
+        for (int i = 0; i < moves.size(); i++) {
+            int move = nextMove(moves, moveScores[ply], i);
+            if (!inCheck && moveScores[ply][i] < 0) {
+                // Only losing exchanges are left
+                break;
+            }
+            game.applyMove(move);
+            int score = -quiesce(ply + 1, -beta, -alpha);
+            game.retractMove();
+            if (stopped) {
+                return 0;
+            }
+            if (score >= beta) {
+                return score;
+            }
+            if (score > alpha) {
+                alpha = score;
+            }
+        }
+        return alpha;
+    }
+
+    /**
+     * Counts a node and every so often checks the clock
+     *
+     * @return true if the search must stop
+     */
+    private boolean countNode() {
+        if (++nodes % NODES_PER_CLOCK_CHECK == 0 && System.nanoTime() >= deadline) {
+            stopped = true;
+        }
+        return stopped;
+    }
+
+    private void scoreMoves(MoveList moves, int[] scores, int hashMove, int ply) {
+        ChessBoard board = game.getBoard();
+        for (int i = 0; i < moves.size(); i++) {
+            int move = moves.get(i);
+            int score;
+            if (hashMove != PackedMove.NONE && PackedMove.withoutFlags(move) == PackedMove.withoutFlags(hashMove)) {
+                score = HASH_MOVE_SCORE;
+            } else if (PackedMove.isCapture(move) || PackedMove.isPromotion(move)) {
+                int victim = PackedMove.hasFlag(move, PackedMove.EN_PASSANT) ? MoveGenerator.PAWN
+                        : board.pieceCodeAt(PackedMove.to(move)) % ChessBoard.PIECE_TYPES;
+                int attacker = board.pieceCodeAt(PackedMove.from(move)) % ChessBoard.PIECE_TYPES;
+                int victimValue = victim < 0 ? 0 : MaterialEvaluator.VALUES[victim];
+                int exchange = 0;
+                if (MaterialEvaluator.VALUES[attacker] > victimValue) {
+                    // Taking something cheaper can lose material if the square is defended
+                    exchange = MoveGenerator.see(board, move, exchangeGains);
+                }
+                if (exchange < 0) {
+                    score = LOSING_CAPTURE_SCORE + exchange;
+                } else {
+                    score = CAPTURE_SCORE + victimValue * 8 - MaterialEvaluator.VALUES[attacker] / 100;
+                    ChessPiece.PieceType promotion = PackedMove.promotion(move);
+                    if (promotion != null) {
+                        score += MaterialEvaluator.VALUES[promotion.ordinal()];
+                    }
+                }
+            } else if (move == killers[ply][0]) {
+                score = KILLER_SCORE + 1;
+            } else if (move == killers[ply][1]) {
+                score = KILLER_SCORE;
+            } else {
+                score = history[board.pieceCodeAt(PackedMove.from(move))][PackedMove.to(move)];
+            }
+            scores[i] = score;
+        }
+    }
+
+    /**
+     * Moves the best-scored of the remaining moves to index i. Selecting lazily
+     * is cheaper than sorting, since most nodes cut off after a move or two.
+     */
+    private static int nextMove(MoveList moves, int[] scores, int i) {
+        int best = i;
+        for (int j = i + 1; j < moves.size(); j++) {
+            if (scores[j] > scores[best]) {
+                best = j;
+            }
+        }
+        int move = moves.get(best);
+        if (best != i) {
+            moves.set(best, moves.get(i));
+            moves.set(i, move);
+            int score = scores[best];
+            scores[best] = scores[i];
+            scores[i] = score;
+        }
+        return move;
+    }
+
+    private static boolean isQuiet(int move) {
+        return !PackedMove.isCapture(move) && !PackedMove.isPromotion(move);
+    }
+
+    private void rememberCutoff(int move, int ply, int depth) {
+        if (killers[ply][0] != move) {
+            killers[ply][1] = killers[ply][0];
+            killers[ply][0] = move;
+        }
+        int[] counts = history[game.getBoard().pieceCodeAt(PackedMove.from(move))];
+        int to = PackedMove.to(move);
+        counts[to] = Math.min(counts[to] + depth * depth, HISTORY_LIMIT);
+    }
+
+    /**
+     * Mate scores count plies from the root, but a stored position may be
+     * reached at another ply, so the table holds them counted from the position
+     */
+    private static int toTable(int score, int ply) {
+        if (score >= MATE - MAX_PLY) {
+            return score + ply;
+        }
+        return score <= -MATE + MAX_PLY ? score - ply : score;
+    }
+
+    private static int fromTable(int score, int ply) {
+        if (score >= MATE - MAX_PLY) {
+            return score - ply;
+        }
+        return score <= -MATE + MAX_PLY ? score + ply : score;
+    }
+
+    private static long elapsedMillis(long start) {
+        return (System.nanoTime() - start) / 1_000_000;
+    }
+}
@@ -0,0 +1,35 @@
+package chess;
+
+/**
+ * The outcome of a {@link Search}
+ *
+ * @param bestMove the move to play, or null if the team to move has none
+ * @param score    centipawns from the point of view of the team to move, or
+ *                 within {@link Search#MAX_PLY} of {@link Search#MATE} when a
+ *                 mate was found
+ * @param depth    the deepest iteration that finished
+ * @param nodes    the positions visited, including in quiescence search
+ * @param millis   the time taken
+ */
+public record SearchResult(ChessMove bestMove, int score, int depth, long nodes, long millis) {
+
+    /**
+     * @return the search speed, counting every thread's nodes for a
+     * {@link ParallelSearch}
+     */
+    public long nodesPerSecond() {
+        return nodes * 1000 / Math.max(1, millis);
+    }
+
+    /**
+     * @return the number of moves until mate, negative if the team to move is
+     * being mated, or 0 if no mate was found
+     */
+    public int mateIn() {
+        if (Math.abs(score) < Search.MATE - Search.MAX_PLY) {
+            return 0;
+        }
+        int plies = Search.MATE - Math.abs(score);
+        return score > 0 ? (plies + 1) / 2 : -(plies + 1) / 2;
+    }
+}
@@ -0,0 +1,199 @@
+package chess;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+
+/**
+ * A fixed-size hash table from 64-bit position keys to packed 64-bit entries,
+ * stored off the Java heap in direct {@link ByteBuffer}s so it can be sized to
+ * gigabytes without adding work for the garbage collector.
+ * <p>
+ * The table is shared by threads without locks. Each slot holds two longs, the
+ * entry and the key XORed with the entry, each written atomically. A reader
+ * accepts a slot only if XORing the two back together gives its key, so a slot
+ * torn by two writers racing reads as a miss instead of as a wrong entry.
+ * <p>
+ * Slots are grouped in buckets of two. The first keeps the entry searched to
+ * the greatest depth and the second always takes the newest entry.
+ * <p>
+ * Entries are packed by the static methods here. Bit 63 is always set so that
+ * an entry is never 0, which {@link #probe(long)} returns for a miss. The low
+ * byte is the depth and the next two bits tell the kinds apart:
+ * <pre>
+ *   perft:  bits 10-62 leaf node count (at depth 1, the legal move count)
+ *   search: bits 10-25 score, bits 26-44 best {@link PackedMove},
+ *           bits 45-52 legal move count
+ * </pre>
+ */
+public final class TranspositionTable {
+
+    public static final long MISS = 0;
+
+    /** Bound kinds of a search entry. */
+    public static final int EXACT = 1;
+    public static final int LOWER_BOUND = 2;
+    public static final int UPPER_BOUND = 3;
+
+    private static final int SLOT_BYTES = 16;
+    private static final int BUCKET_BYTES = 2 * SLOT_BYTES;
+    /** 2^25 buckets of 32 bytes, so one buffer holds 1 GiB */
+    private static final int CHUNK_BITS = 25;
+
+    private static final long VALID = 1L << 63;
+    private static final int PERFT = 0;
+    private static final long PERFT_NODES_MASK = (1L << 53) - 1;
+
+    private static final VarHandle LONGS = MethodHandles.byteBufferViewVarHandle(long[].class,
+            ByteOrder.nativeOrder());
+
+    private final ByteBuffer[] chunks;
+    private final long bucketMask;
+    private final int chunkMask;
+
+    /**
+     * @param bytes the most memory to use; the table takes the largest power of
+     *              two number of buckets that fits, and at least one bucket
+     */
+    public TranspositionTable(long bytes) {
+        long buckets = Math.max(1, Long.highestOneBit(bytes / BUCKET_BYTES));
+        int bucketsPerChunk = (int) Math.min(buckets, 1L << CHUNK_BITS);
+        chunks = new ByteBuffer[(int) (buckets / bucketsPerChunk)];
+        for (int i = 0; i < chunks.length; i++) {
+            chunks[i] = ByteBuffer.allocateDirect(bucketsPerChunk * BUCKET_BYTES).order(ByteOrder.nativeOrder());
+        }
+        bucketMask = buckets - 1;
+        chunkMask = bucketsPerChunk - 1;
+    }
+
+    /**
+     * @return the memory taken by the table, in bytes
+     */
+    public long sizeInBytes() {
+        return (bucketMask + 1) * BUCKET_BYTES;
+    }
+
+    /**
+     * @return the entry stored for the key, or {@link #MISS}
+     */
+    public long probe(long key) {
+        ByteBuffer chunk = chunk(key);
+        int offset = offset(key);
+        for (int slot = offset; slot < offset + BUCKET_BYTES; slot += SLOT_BYTES) {
+            long entry = (long) LONGS.getOpaque(chunk, slot + 8);
+            if (((long) LONGS.getOpaque(chunk, slot) ^ entry) == key && entry != MISS) {
+                return entry;
+            }
+        }
+        return MISS;
+    }
+
+    /**
+     * Stores an entry, keeping the deepest entry for the bucket in its first slot
+     *
+     * @param entry an entry made by {@link #perftEntry} or {@link #searchEntry}
+     */
+    public void store(long key, long entry) {
+        ByteBuffer chunk = chunk(key);
+        int slot = offset(key);
+        long deepest = (long) LONGS.getOpaque(chunk, slot + 8);
+        boolean sameKey = ((long) LONGS.getOpaque(chunk, slot) ^ deepest) == key;
+        if (!sameKey && depth(entry) < depth(deepest)) {
+            slot += SLOT_BYTES;
+        }
+        LONGS.setOpaque(chunk, slot + 8, entry);
+        LONGS.setOpaque(chunk, slot, key ^ entry);
+    }
+
+    /**
+     * Empties the table. Must not run while other threads use it.
+     */
+    public void clear() {
+        for (ByteBuffer chunk : chunks) {
+            for (int i = 0; i < chunk.capacity(); i += 8) {
+                chunk.putLong(i, 0);
+            }
+        }
+    }
+
+    /**
+     * Estimates how full the table is by sampling its first buckets
+     *
+     * @return the used slots per thousand
+     */
+    public int hashfull() {
+        ByteBuffer chunk = chunks[0];
+        int slots = Math.min(1000, chunk.capacity() / SLOT_BYTES);
+        int used = 0;
+        for (int i = 0; i < slots; i++) {
+            if ((long) LONGS.getOpaque(chunk, i * SLOT_BYTES + 8) != MISS) {
+                used++;
+            }
+        }
+        return used * 1000 / slots;
+    }
+
+    private ByteBuffer chunk(long key) {
+        return chunks[(int) ((key & bucketMask) >>> CHUNK_BITS)];
+    }
+
+    private int offset(long key) {
+        return ((int) key & chunkMask) * BUCKET_BYTES;
+    }
+
+    // Entry packing
+
+    /**
+     * Perft counts of one position at different depths must be stored under
+     * different keys, since a bucket only keeps two entries
+     *
+     * @return the position key adjusted for the perft depth
+     */
+    public static long perftKey(long key, int depth) {
+        return key ^ (depth * 0x9E3779B97F4A7C15L);
+    }
+
+    public static long perftEntry(int depth, long nodes) {
+        return VALID | (nodes & PERFT_NODES_MASK) << 10 | (long) PERFT << 8 | depth;
+    }
+
+    /**
+     * @param move       the best move found, or {@link PackedMove#NONE}
+     * @param score      the score, which must fit in 16 signed bits
+     * @param bound      {@link #EXACT}, {@link #LOWER_BOUND} or {@link #UPPER_BOUND}
+     * @param moveCount  the number of legal moves in the position, up to 255
+     */
+    public static long searchEntry(int move, int score, int depth, int bound, int moveCount) {
+        return VALID | (long) moveCount << 45 | (long) move << 26 | (long) (score & 0xFFFF) << 10
+                | (long) bound << 8 | depth;
+    }
+
+    public static int depth(long entry) {
+        return (int) entry & 0xFF;
+    }
+
+    public static boolean isPerft(long entry) {
+        return entry != MISS && bound(entry) == PERFT;
+    }
+
+    public static long nodes(long entry) {
+        return (entry >>> 10) & PERFT_NODES_MASK;
+    }
+
+    public static int bound(long entry) {
+        return (int) (entry >>> 8) & 3;
+    }
+
+    public static int score(long entry) {
+        return (short) (entry >>> 10);
+    }
+
+    public static int move(long entry) {
+        return (int) (entry >>> 26) & 0x7FFFF;
+    }
+
+    public static int moveCount(long entry) {
+        return (int) (entry >>> 45) & 0xFF;
+    }
+}
@@ -0,0 +1,65 @@
+package chess;
+
+import java.util.SplittableRandom;
+
+/**
+ * Random 64-bit keys for Zobrist hashing. A position's key is the XOR of one key
+ * per piece on a square plus keys for the side to move, the castling rights and
+ * the en passant file, so every change to the position updates it with a single
+ * XOR. The keys come from a fixed seed so that they are the same in every JVM
+ * and can be stored.
+ */
+final class Zobrist {
+
+    private static final long[][] PIECE_SQUARE = new long[2 * ChessBoard.PIECE_TYPES][64];
+    private static final long[] CASTLING = new long[CastlingRights.ALL + 1];
+    private static final long[] EN_PASSANT_FILE = new long[8];
+    private static final long BLACK_TO_MOVE;
+
+    static {
+        SplittableRandom random = new SplittableRandom(0x5EED_C4E5_5L);
+        for (long[] squares : PIECE_SQUARE) {
+            for (int square = 0; square < 64; square++) {
+                squares[square] = random.nextLong();
+            }
+        }
+        // Each right gets its own key and combinations XOR them together
+        long[] rights = {random.nextLong(), random.nextLong(), random.nextLong(), random.nextLong()};
+        for (int mask = 0; mask < CASTLING.length; mask++) {
+            for (int bit = 0; bit < 4; bit++) {
+                if ((mask & (1 << bit)) != 0) {
+                    CASTLING[mask] ^= rights[bit];
+                }
+            }
+        }
+        for (int file = 0; file < 8; file++) {
+            EN_PASSANT_FILE[file] = random.nextLong();
+        }
+        BLACK_TO_MOVE = random.nextLong();
+    }
+
+    private Zobrist() {
+    }
+
+    /**
+     * @param code the piece as color * {@link ChessBoard#PIECE_TYPES} + type ordinal
+     */
+    static long piece(int code, int square) {
+        return PIECE_SQUARE[code][square];
+    }
+
+    static long castling(int rights) {
+        return CASTLING[rights];
+    }
+
+    /**
+     * @return the key for an en passant square, or 0 if there is none
+     */
+    static long enPassant(int square) {
+        return square < 0 ? 0 : EN_PASSANT_FILE[square & 7];
+    }
+
+    static long side(ChessGame.TeamColor toMove) {
+        return toMove == ChessGame.TeamColor.BLACK ? BLACK_TO_MOVE : 0;
+    }
+}
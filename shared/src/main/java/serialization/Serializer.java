@@ -0,0 +1,212 @@
+package serialization;
+
+import chess.ChessBoard;
+import chess.ChessGame;
+import chess.ChessMove;
+import chess.ChessPiece;
+import chess.ChessPosition;
+import chess.PackedMove;
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+import com.google.gson.JsonParseException;
+import com.google.gson.TypeAdapter;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import com.google.gson.stream.JsonWriter;
+import model.GameData;
+
+import java.io.IOException;
+
+/**
+ * The one {@link Gson} instance shared by the server and the client. Chess
+ * and game types are written by hand-written streaming adapters instead of
+ * reflection, and in compact text forms:
+ * <pre>
+ *   ChessGame      "rnbqkbnr/pppppppp/8/8/8/8/PPPPPPPP/RNBQKBNR w KQkq - 0 1" (FEN)
+ *   ChessBoard     "rnbqkbnr/pppppppp/8/8/8/8/PPPPPPPP/RNBQKBNR" (FEN placement)
+ *   ChessPiece     "N" for white, "n" for black
+ *   ChessPosition  "e4"
+ *   ChessMove      "e2e4", or "e7e8q" for a promotion
+ * </pre>
+ * Gson instances are thread safe and cache the adapter for every type they
+ * have seen, so building one per handler or per request wastes that work.
+ */
+public final class Serializer {
+
+    private static final Gson GSON = new GsonBuilder()
+            .registerTypeAdapter(ChessGame.class, new ChessGameAdapter().nullSafe())
+            .registerTypeAdapter(ChessBoard.class, new ChessBoardAdapter().nullSafe())
+            .registerTypeAdapter(ChessPiece.class, new ChessPieceAdapter().nullSafe())
+            .registerTypeAdapter(ChessPosition.class, new ChessPositionAdapter().nullSafe())
+            .registerTypeAdapter(ChessMove.class, new ChessMoveAdapter().nullSafe())
+            .registerTypeAdapter(GameData.class, new GameDataAdapter().nullSafe())
+            .create();
+
+    private Serializer() {
+    }
+
+    public static Gson gson() {
+        return GSON;
+    }
+
+    private static final class ChessGameAdapter extends TypeAdapter<ChessGame> {
+        @Override
+        public void write(JsonWriter out, ChessGame game) throws IOException {
+            out.value(game.toFen());
+        }
+
+        @Override
+        public ChessGame read(JsonReader in) throws IOException {
+            String fen = in.nextString();
+            try {
+                return ChessGame.fromFen(fen);
+            } catch (IllegalArgumentException e) {
+                throw new JsonParseException(e.getMessage(), e);
+            }
+        }
+    }
+
+    private static final class ChessBoardAdapter extends TypeAdapter<ChessBoard> {
+        @Override
+        public void write(JsonWriter out, ChessBoard board) throws IOException {
+            out.value(board.toFen());
+        }
+
+        @Override
+        public ChessBoard read(JsonReader in) throws IOException {
+            String fen = in.nextString();
+            try {
+                return ChessBoard.fromFen(fen);
+            } catch (IllegalArgumentException e) {
+                throw new JsonParseException(e.getMessage(), e);
+            }
+        }
+    }
+
+    private static final class ChessPieceAdapter extends TypeAdapter<ChessPiece> {
+        @Override
+        public void write(JsonWriter out, ChessPiece piece) throws IOException {
+            out.value(String.valueOf(piece.toChar()));
+        }
+
+        @Override
+        public ChessPiece read(JsonReader in) throws IOException {
+            String letter = in.nextString();
+            ChessPiece.PieceType type = letter.length() != 1 ? null : switch (Character.toLowerCase(letter.charAt(0))) {
+                case 'k' -> ChessPiece.PieceType.KING;
+                case 'q' -> ChessPiece.PieceType.QUEEN;
+                case 'b' -> ChessPiece.PieceType.BISHOP;
+                case 'n' -> ChessPiece.PieceType.KNIGHT;
+                case 'r' -> ChessPiece.PieceType.ROOK;
+                case 'p' -> ChessPiece.PieceType.PAWN;
+                default -> null;
+            };
+            if (type == null) {
+                throw new JsonParseException("Invalid piece " + letter);
+            }
+            ChessGame.TeamColor color = Character.isUpperCase(letter.charAt(0))
+                    ? ChessGame.TeamColor.WHITE : ChessGame.TeamColor.BLACK;
+            return ChessPiece.of(color, type);
+        }
+    }
+
+    private static final class ChessPositionAdapter extends TypeAdapter<ChessPosition> {
+        @Override
+        public void write(JsonWriter out, ChessPosition position) throws IOException {
+            out.value(new String(new char[]{
+                    (char) ('a' + position.getColumn() - 1), (char) ('0' + position.getRow())}));
+        }
+
+        @Override
+        public ChessPosition read(JsonReader in) throws IOException {
+            return position(in.nextString(), 0);
+        }
+    }
+
+    private static final class ChessMoveAdapter extends TypeAdapter<ChessMove> {
+        @Override
+        public void write(JsonWriter out, ChessMove move) throws IOException {
+            out.value(PackedMove.toString(PackedMove.fromChessMove(move)));
+        }
+
+        @Override
+        public ChessMove read(JsonReader in) throws IOException {
+            String text = in.nextString();
+            if (text.length() != 4 && text.length() != 5) {
+                throw new JsonParseException("Invalid move " + text);
+            }
+            ChessPiece.PieceType promotion = null;
+            if (text.length() == 5) {
+                promotion = switch (text.charAt(4)) {
+                    case 'q' -> ChessPiece.PieceType.QUEEN;
+                    case 'r' -> ChessPiece.PieceType.ROOK;
+                    case 'b' -> ChessPiece.PieceType.BISHOP;
+                    case 'n' -> ChessPiece.PieceType.KNIGHT;
+                    default -> throw new JsonParseException("Invalid promotion in " + text);
+                };
+            }
+            return new ChessMove(position(text, 0), position(text, 2), promotion);
+        }
+    }
+
+    private static final class GameDataAdapter extends TypeAdapter<GameData> {
+        @Override
+        public void write(JsonWriter out, GameData data) throws IOException {
+            out.beginObject();
+            out.name("gameID").value(data.gameID());
+            if (data.whiteUsername() != null) {
+                out.name("whiteUsername").value(data.whiteUsername());
+            }
+            if (data.blackUsername() != null) {
+                out.name("blackUsername").value(data.blackUsername());
+            }
+            if (data.gameName() != null) {
+                out.name("gameName").value(data.gameName());
+            }
+            if (data.game() != null) {
+                out.name("game").value(data.game().toFen());
+            }
+            out.endObject();
+        }
+
+        @Override
+        public GameData read(JsonReader in) throws IOException {
+            int gameID = 0;
+            String whiteUsername = null;
+            String blackUsername = null;
+            String gameName = null;
+            ChessGame game = null;
+
+            in.beginObject();
+            while (in.hasNext()) {
+                String name = in.nextName();
+                if (in.peek() == JsonToken.NULL) {
+                    in.nextNull();
+                    continue;
+                }
+                switch (name) {
+                    case "gameID" -> gameID = in.nextInt();
+                    case "whiteUsername" -> whiteUsername = in.nextString();
+                    case "blackUsername" -> blackUsername = in.nextString();
+                    case "gameName" -> gameName = in.nextString();
+                    case "game" -> game = GSON.getAdapter(ChessGame.class).read(in);
+                    default -> in.skipValue();
+                }
+            }
+            in.endObject();
+            return new GameData(gameID, whiteUsername, blackUsername, gameName, game);
+        }
+    }
+
+    private static ChessPosition position(String text, int index) {
+        if (text.length() < index + 2) {
+            throw new JsonParseException("Invalid position " + text);
+        }
+        int col = text.charAt(index) - 'a' + 1;
+        int row = text.charAt(index + 1) - '0';
+        if (col < 1 || col > 8 || row < 1 || row > 8) {
+            throw new JsonParseException("Invalid position " + text);
+        }
+        return new ChessPosition(row, col);
+    }
+}
@@ -0,0 +1,54 @@
+package chess;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+public class DrawRuleTests {
+
+    @Test
+    @DisplayName("Third occurrence of a position is a repetition")
+    public void threefoldRepetition() throws InvalidMoveException {
+        var game = new ChessGame();
+        ZobristTests.play(game, "g1f3", "g8f6", "f3g1", "f6g8");
+        Assertions.assertFalse(game.isThreefoldRepetition(), "Second occurrence is not yet a draw");
+
+        ZobristTests.play(game, "g1f3", "g8f6", "f3g1");
+        Assertions.assertFalse(game.isThreefoldRepetition());
+        ZobristTests.play(game, "f6g8");
+        Assertions.assertTrue(game.isThreefoldRepetition());
+
+        game.unmakeMove();
+        Assertions.assertFalse(game.isThreefoldRepetition(), "Repetition survived taking the move back");
+    }
+
+    @Test
+    @DisplayName("Same placement with different castling rights does not repeat")
+    public void castlingRightsBreakRepetition() throws InvalidMoveException {
+        var game = new ChessGame();
+        ZobristTests.play(game, "g1f3", "g8f6", "h1g1", "h8g8", "g1h1", "g8h8", "f3g1", "f6g8");
+        ZobristTests.play(game, "g1f3", "g8f6", "f3g1", "f6g8");
+        Assertions.assertFalse(game.isThreefoldRepetition(), "Rights lost after the first occurrence");
+
+        ZobristTests.play(game, "g1f3", "g8f6", "f3g1", "f6g8");
+        Assertions.assertTrue(game.isThreefoldRepetition());
+    }
+
+    @Test
+    @DisplayName("Hundred halfmoves without a capture or pawn move")
+    public void fiftyMoveRule() throws InvalidMoveException {
+        var game = new ChessGame();
+        ZobristTests.play(game, "e2e4");
+        for (int i = 0; i < 24; i++) {
+            ZobristTests.play(game, "g8f6", "g1f3", "f6g8", "f3g1");
+        }
+        Assertions.assertEquals(96, game.getHalfmoveClock());
+        Assertions.assertFalse(game.isFiftyMoveRule());
+
+        ZobristTests.play(game, "b8c6", "b1c3", "c6b8", "c3b1");
+        Assertions.assertTrue(game.isFiftyMoveRule());
+
+        ZobristTests.play(game, "e7e5");
+        Assertions.assertFalse(game.isFiftyMoveRule(), "Pawn move did not reset the clock");
+    }
+}
@@ -0,0 +1,79 @@
+package chess;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+public class FenTests {
+
+    private static final String START = "rnbqkbnr/pppppppp/8/8/8/8/PPPPPPPP/RNBQKBNR w KQkq - 0 1";
+
+    @Test
+    @DisplayName("Starting position reads and writes")
+    public void startingPosition() {
+        Assertions.assertEquals(new ChessGame(), ChessGame.fromFen(START));
+        Assertions.assertEquals(START, new ChessGame().toFen());
+        Assertions.assertEquals(new ChessGame().getBoard(), ChessBoard.fromFen(START));
+        Assertions.assertEquals("rnbqkbnr/pppppppp/8/8/8/8/PPPPPPPP/RNBQKBNR", new ChessGame().getBoard().toFen());
+    }
+
+    @Test
+    @DisplayName("Game state follows the moves played")
+    public void afterMoves() throws InvalidMoveException {
+        var game = new ChessGame();
+        ZobristTests.play(game, "e2e4", "g8f6", "e4e5", "d7d5");
+        String fen = "rnbqkb1r/ppp1pppp/5n2/3pP3/8/8/PPPP1PPP/RNBQKBNR w KQkq d6 0 3";
+        Assertions.assertEquals(fen, game.toFen());
+
+        var parsed = ChessGame.fromFen(fen);
+        Assertions.assertEquals(game, parsed);
+        Assertions.assertEquals(game.zobristKey(), parsed.zobristKey());
+        Assertions.assertEquals(fen, parsed.toFen());
+
+        ZobristTests.play(game, "g1f3", "b8c6", "h1g1");
+        Assertions.assertEquals("r1bqkb1r/ppp1pppp/2n2n2/3pP3/8/5N2/PPPP1PPP/RNBQKBR1 b Qkq - 3 4", game.toFen());
+    }
+
+    @Test
+    @DisplayName("Perft from parsed positions")
+    public void parsedPerft() {
+        Assertions.assertEquals(2039, Perft.perft(ChessGame.fromFen(
+                "r3k2r/p1ppqpb1/bn2pnp1/3PN3/1p2P3/2N2Q1p/PPPBBPPP/R3K2R w KQkq -"), 2));
+        Assertions.assertEquals(1486, Perft.perft(ChessGame.fromFen(
+                "rnbq1k1r/pp1Pbppp/2p5/8/2B5/8/PPP1NnPP/RNBQK2R w KQ - 1 8"), 2));
+        Assertions.assertEquals(14, Perft.perft(ChessGame.fromFen("8/2p5/3p4/KP5r/1R3p1k/8/4P1P1/8 w - -"), 1));
+    }
+
+    @Test
+    @DisplayName("Uncapturable en passant squares and lost castling pieces are dropped")
+    public void normalized() {
+        var game = ChessGame.fromFen("4k3/8/8/8/4P3/8/8/R3K3 b KQkq e3 0 1");
+        Assertions.assertNull(game.getEnPassantPosition());
+        Assertions.assertEquals(CastlingRights.WHITE_QUEENSIDE, game.getCastlingRights());
+        Assertions.assertEquals("4k3/8/8/8/4P3/8/8/R3K3 b Q - 0 1", game.toFen());
+    }
+
+    @Test
+    @DisplayName("Malformed FEN is rejected")
+    public void malformed() {
+        String[] bad = {
+                "",
+                "rnbqkbnr/pppppppp/8/8/8/8/PPPPPPPP w KQkq - 0 1",
+                "rnbqkbnr/pppppppp/9/8/8/8/PPPPPPPP/RNBQKBNR w KQkq - 0 1",
+                "rnbqkbnr/ppppxppp/8/8/8/8/PPPPPPPP/RNBQKBNR w KQkq - 0 1",
+                "rnbqkbnr/pppppppp/8/8/8/8/PPPPPPPP/RNBQKBNR x KQkq - 0 1",
+                "rnbqkbnr/pppppppp/8/8/8/8/PPPPPPPP/RNBQKBNR w KQkx - 0 1",
+                "rnbqkbnr/pppppppp/8/8/8/8/PPPPPPPP/RNBQKBNR w KQkq e5 0 1",
+                "rnbqkbnr/pppppppp/8/8/8/8/PPPPPPPP/RNBQKBNR w KQkq - x 1",
+                "rnbqkbnr/pppppppp/8/8/8/8/PPPPPPPP/RNBQKBNR w",
+                "rnbqkbnr/pppp1ppp/8/8/4p3/8/PPPPPPPP/RNBQKBNR w KQkq e3 0 1",
+                "rnbqkbnr/pppppppp/8/4P3/8/8/PPPP1PPP/RNBQKBNR b KQkq e6 0 1",
+                "rnbqkbnr/pppppppp/8/8/8/8/PPPPPPPP/RNBQKBNR w KQkq - 65536 1",
+                "rnbqkbnr/pppppppp/8/8/8/8/PPPPPPPP/RNBQKBNR w KQkq - 99999999999 1",
+                "rnbqkbnr/pppppppp/8/8/8/8/PPPPPPPP/RNBQKBNR w KQkq - 0 99999999999",
+        };
+        for (String fen : bad) {
+            Assertions.assertThrows(IllegalArgumentException.class, () -> ChessGame.fromFen(fen), fen);
+        }
+    }
+}
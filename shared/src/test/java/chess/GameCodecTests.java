@@ -0,0 +1,69 @@
+package chess;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+
+public class GameCodecTests {
+
+    @Test
+    @DisplayName("Starting position round trips in under 32 bytes")
+    public void startingPosition() {
+        byte[] bytes = GameCodec.encode(new ChessGame());
+        Assertions.assertTrue(bytes.length < 32, "Encoded in " + bytes.length + " bytes");
+        Assertions.assertEquals(new ChessGame(), GameCodec.decode(bytes));
+        Assertions.assertNotEquals('{', bytes[0]);
+    }
+
+    @Test
+    @DisplayName("Turn, castling, en passant and clocks round trip")
+    public void gameState() throws InvalidMoveException {
+        var game = new ChessGame();
+        ZobristTests.play(game, "e2e4", "g8f6", "e4e5", "d7d5");
+        var decoded = GameCodec.decode(GameCodec.encode(game));
+        Assertions.assertEquals(game.toFen(), decoded.toFen());
+        Assertions.assertEquals(game.zobristKey(), decoded.zobristKey());
+
+        var late = ChessGame.fromFen("8/2p5/3p4/KP5r/1R3p1k/8/4P1P1/8 b - - 87 300");
+        Assertions.assertEquals(late.toFen(), GameCodec.decode(GameCodec.encode(late)).toFen());
+    }
+
+    @Test
+    @DisplayName("A board full of pieces with the largest clocks round trips")
+    public void fullBoard() {
+        var full = ChessGame.fromFen("qqqqkqqq/qqqqqqqq/pppppppp/pppppppp/PPPPPPPP/PPPPPPPP/QQQQQQQQ/QQQQKQQQ w - - "
+                + Fen.MAX_HALFMOVE_CLOCK + " " + Fen.MAX_FULLMOVE);
+        Assertions.assertEquals(full.toFen(), GameCodec.decode(GameCodec.encode(full)).toFen());
+    }
+
+    @Test
+    @DisplayName("En passant squares are checked like FEN's")
+    public void enPassant() throws InvalidMoveException {
+        var game = new ChessGame();
+        ZobristTests.play(game, "e2e4", "g8f6", "e4e5", "d7d5");
+        byte[] bytes = GameCodec.encode(game);
+        int index = 1 + 8 + (Long.bitCount(game.getBoard().occupancy()) + 1) / 2 + 1;
+        Assertions.assertEquals(43 + 1, bytes[index], "Expected d6");
+
+        // h6 is on the right rank, but no pawn can take there
+        bytes[index] = 47 + 1;
+        Assertions.assertNull(GameCodec.decode(bytes).getEnPassantPosition());
+        bytes[index] = 19 + 1;
+        Assertions.assertThrows(IllegalArgumentException.class, () -> GameCodec.decode(bytes), "d3 with White to move");
+    }
+
+    @Test
+    @DisplayName("Unknown versions and truncated input are rejected")
+    public void malformed() {
+        byte[] bytes = GameCodec.encode(new ChessGame());
+        Assertions.assertThrows(IllegalArgumentException.class, () -> GameCodec.decode(new byte[0]));
+        Assertions.assertThrows(IllegalArgumentException.class, () -> GameCodec.decode("{}".getBytes()));
+        for (int length = 1; length < bytes.length; length++) {
+            byte[] truncated = Arrays.copyOf(bytes, length);
+            Assertions.assertThrows(IllegalArgumentException.class, () -> GameCodec.decode(truncated),
+                    "Accepted " + length + " bytes");
+        }
+    }
+}
@@ -0,0 +1,61 @@
+package chess;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+public class GameReplayTests {
+
+    @Test
+    @DisplayName("Every ply of a long game can be reached")
+    public void seekEveryPly() throws InvalidMoveException {
+        var game = new ChessGame();
+        List<ChessGame> positions = new ArrayList<>();
+        positions.add(new ChessGame(game));
+        var random = new Random(240);
+        while (positions.size() <= 120 && !game.getStatus().isOver()) {
+            List<ChessMove> moves = game.legalMoveStream().toList();
+            game.makeMove(moves.get(random.nextInt(moves.size())));
+            positions.add(new ChessGame(game));
+        }
+
+        GameReplay replay = game.replay();
+        Assertions.assertEquals(0, replay.getStartPly());
+        Assertions.assertEquals(game.getPly(), replay.getEndPly());
+        for (int ply = replay.getEndPly(); ply >= 0; ply--) {
+            ChessGame position = replay.positionAt(ply);
+            Assertions.assertEquals(positions.get(ply), position, "ply " + ply);
+            Assertions.assertEquals(ply, position.getPly());
+            Assertions.assertEquals(positions.get(ply).getHalfmoveClock(), position.getHalfmoveClock());
+        }
+    }
+
+    @Test
+    @DisplayName("Replays start from any position and accept moves without flags")
+    public void fromPosition() {
+        var start = ChessGame.fromFen("r3k2r/8/8/8/8/8/8/R3K2R w KQkq - 4 20");
+        int[] moves = {
+                PackedMove.of(4, 6), // e1g1, castling
+                PackedMove.of(60, 58), // e8c8, castling
+        };
+        var replay = new GameReplay(start, moves);
+
+        Assertions.assertEquals(38, replay.getStartPly());
+        Assertions.assertTrue(PackedMove.hasFlag(replay.getMoves()[0], PackedMove.CASTLE));
+        Assertions.assertEquals(ChessGame.fromFen("2kr3r/8/8/8/8/8/8/R4RK1 w - - 6 21"), replay.positionAt(40));
+        Assertions.assertEquals(start, replay.positionAt(38));
+        Assertions.assertThrows(IllegalArgumentException.class, () -> replay.positionAt(41));
+        Assertions.assertThrows(IllegalArgumentException.class, () -> replay.positionAt(37));
+    }
+
+    @Test
+    @DisplayName("Illegal moves are rejected when the replay is built")
+    public void illegalMove() {
+        int[] moves = {PackedMove.of(12, 28), PackedMove.of(12, 20)};
+        Assertions.assertThrows(IllegalArgumentException.class, () -> new GameReplay(new ChessGame(), moves));
+    }
+}
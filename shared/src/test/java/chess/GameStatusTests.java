@@ -0,0 +1,64 @@
+package chess;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import passoff.chess.TestUtilities;
+
+public class GameStatusTests {
+
+    @Test
+    @DisplayName("Status is computed once per position")
+    public void memoized() throws InvalidMoveException {
+        var game = new ChessGame();
+        var status = game.getStatus();
+        Assertions.assertEquals(new GameStatus(ChessGame.TeamColor.WHITE, false, 20, GameStatus.Outcome.IN_PROGRESS),
+                status);
+        Assertions.assertSame(status, game.getStatus());
+
+        ZobristTests.play(game, "f2f3", "e7e5", "g2g4");
+        Assertions.assertEquals(new GameStatus(ChessGame.TeamColor.BLACK, false, 30, GameStatus.Outcome.IN_PROGRESS),
+                game.getStatus());
+
+        ZobristTests.play(game, "d8h4");
+        Assertions.assertEquals(new GameStatus(ChessGame.TeamColor.WHITE, true, 0, GameStatus.Outcome.CHECKMATE),
+                game.getStatus());
+        Assertions.assertTrue(game.isInCheckmate(ChessGame.TeamColor.WHITE));
+        Assertions.assertFalse(game.isInStalemate(ChessGame.TeamColor.WHITE));
+
+        game.unmakeMove();
+        Assertions.assertFalse(game.getStatus().isOver(), "Status survived taking the move back");
+    }
+
+    @Test
+    @DisplayName("Status notices pieces changed directly on the board")
+    public void boardEdits() {
+        var game = new ChessGame();
+        game.setBoard(TestUtilities.loadBoard("""
+                |k| | | | | | | |
+                | | | | | | | | |
+                | |Q| | | | | | |
+                | | | | | | | | |
+                | | | | | | | | |
+                | | | | | | | | |
+                | | | | | | | | |
+                | | | | | | | |K|
+                """));
+        game.setTeamTurn(ChessGame.TeamColor.BLACK);
+        Assertions.assertEquals(GameStatus.Outcome.STALEMATE, game.getStatus().outcome());
+
+        game.getBoard().removePiece(new ChessPosition(6, 2));
+        Assertions.assertEquals(GameStatus.Outcome.IN_PROGRESS, game.getStatus().outcome());
+        Assertions.assertEquals(3, game.getStatus().legalMoveCount());
+    }
+
+    @Test
+    @DisplayName("Repetition ends the game")
+    public void repetition() throws InvalidMoveException {
+        var game = new ChessGame();
+        for (int i = 0; i < 2; i++) {
+            ZobristTests.play(game, "g1f3", "g8f6", "f3g1", "f6g8");
+        }
+        Assertions.assertEquals(GameStatus.Outcome.THREEFOLD_REPETITION, game.getStatus().outcome());
+    }
+}
@@ -0,0 +1,73 @@
+package chess;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.HashSet;
+
+public class LegalMoveCacheTests {
+
+    @AfterEach
+    public void uninstall() {
+        LegalMoveCache.install(null);
+    }
+
+    @Test
+    @DisplayName("Games reaching the same position share its moves")
+    public void sharedAcrossGames() throws InvalidMoveException {
+        var cache = new LegalMoveCache(1024);
+        LegalMoveCache.install(cache);
+
+        var first = new ChessGame();
+        ZobristTests.play(first, "g1f3", "g8f6", "b1c3", "b8c6");
+        var second = new ChessGame();
+        ZobristTests.play(second, "b1c3", "b8c6", "g1f3", "g8f6");
+
+        long misses = cache.misses();
+        var knightMoves = first.validMoves(new ChessPosition(3, 6));
+        Assertions.assertEquals(misses + 1, cache.misses());
+        Assertions.assertEquals(new HashSet<>(knightMoves),
+                new HashSet<>(second.validMoves(new ChessPosition(3, 6))));
+        Assertions.assertEquals(misses + 1, cache.misses(), "Transposed position was not a hit");
+    }
+
+    @Test
+    @DisplayName("Cached moves match generated moves")
+    public void matchesUncached() throws InvalidMoveException {
+        var uncached = new ChessGame();
+        ZobristTests.play(uncached, "e2e4", "d7d5", "e4e5", "f7f5");
+
+        LegalMoveCache.install(new LegalMoveCache(1024));
+        var cached = new ChessGame(uncached);
+        for (int square = 0; square < 64; square++) {
+            var position = ChessPosition.ofSquare(square);
+            var expected = uncached.validMoves(position);
+            var actual = cached.validMoves(position);
+            Assertions.assertEquals(expected == null ? null : new HashSet<>(expected),
+                    actual == null ? null : new HashSet<>(actual), "Moves from " + position);
+        }
+        // Cached moves keep their flags, so en passant still removes the pawn
+        cached.makeMove(new ChessMove(new ChessPosition(5, 5), new ChessPosition(6, 6), null));
+        Assertions.assertNull(cached.getBoard().getPiece(new ChessPosition(5, 6)), "Captured pawn was not removed");
+    }
+
+    @Test
+    @DisplayName("Cache stays within its capacity")
+    public void bounded() {
+        var cache = new LegalMoveCache(16);
+        LegalMoveCache.install(cache);
+        var game = new ChessGame();
+        MoveList moves = new MoveList();
+        game.legalMoves(moves);
+        for (int i = 0; i < moves.size(); i++) {
+            var child = new ChessGame(game);
+            child.applyMove(moves.get(i));
+            child.validMoves(new ChessPosition(7, 1));
+        }
+        Assertions.assertTrue(cache.size() <= 16, "Cache grew past its capacity");
+        Assertions.assertEquals(20, cache.misses());
+        Assertions.assertEquals(20, cache.size() + cache.evictions());
+    }
+}
@@ -0,0 +1,79 @@
+package chess;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import passoff.chess.TestUtilities;
+
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+public class LegalMoveIteratorTests {
+
+    @Test
+    @DisplayName("Iterator yields exactly the generated legal moves")
+    public void matchesLegalMoves() {
+        var game = new ChessGame();
+        game.setBoard(TestUtilities.loadBoard("""
+                |r| | | |k| | |r|
+                |p| |p|p|q|p|b| |
+                |b|n| | |p|n|p| |
+                | | | |P|N| | | |
+                | |p| | |P| | | |
+                | | |N| | |Q| |p|
+                |P|P|P|B|B|P|P|P|
+                |R| | | |K| | |R|
+                """));
+        MoveList moves = new MoveList();
+        game.legalMoves(moves);
+        for (int i = 0; i < moves.size(); i++) {
+            game.applyMove(moves.get(i));
+            MoveList replies = new MoveList();
+            game.legalMoves(replies);
+            Set<ChessMove> expected = new HashSet<>();
+            for (int j = 0; j < replies.size(); j++) {
+                expected.add(PackedMove.toChessMove(replies.get(j)));
+            }
+            Assertions.assertEquals(expected, game.legalMoveStream().collect(Collectors.toSet()),
+                    "After " + PackedMove.toString(moves.get(i)));
+            Assertions.assertEquals(replies.size(), game.legalMoveStream().count(), "Duplicate moves");
+            game.retractMove();
+        }
+    }
+
+    @Test
+    @DisplayName("Double check leaves only king moves")
+    public void doubleCheck() {
+        var game = new ChessGame();
+        game.setBoard(TestUtilities.loadBoard("""
+                | | | | |k| | | |
+                | | | | | | | | |
+                | | | | | |N| | |
+                | | | | | | | | |
+                | | | | |R| | | |
+                | | | | | | | | |
+                | | | | | | | |q|
+                |r| | | |K| | | |
+                """));
+        game.setTeamTurn(ChessGame.TeamColor.BLACK);
+        Assertions.assertTrue(game.getBoard().isAttacked(new ChessPosition(8, 5), ChessGame.TeamColor.WHITE));
+        Iterator<ChessMove> moves = game.legalMoveIterator();
+        while (moves.hasNext()) {
+            Assertions.assertEquals(new ChessPosition(8, 5), moves.next().getStartPosition());
+        }
+        Assertions.assertTrue(game.hasLegalMove(ChessGame.TeamColor.BLACK));
+    }
+
+    @Test
+    @DisplayName("Existence queries agree with checkmate and stalemate")
+    public void existence() throws InvalidMoveException {
+        var game = new ChessGame();
+        ZobristTests.play(game, "f2f3", "e7e5", "g2g4", "d8h4");
+        Assertions.assertFalse(game.hasLegalMove(ChessGame.TeamColor.WHITE));
+        Assertions.assertTrue(game.hasLegalMove(ChessGame.TeamColor.BLACK));
+        Assertions.assertFalse(game.legalMoveIterator().hasNext());
+        Assertions.assertTrue(game.isInCheckmate(ChessGame.TeamColor.WHITE));
+    }
+}
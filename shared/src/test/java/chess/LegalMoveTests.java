@@ -0,0 +1,126 @@
+package chess;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import passoff.chess.TestUtilities;
+
+public class LegalMoveTests {
+
+    @Test
+    @DisplayName("King may castle on both sides")
+    public void castleBothSides() throws InvalidMoveException {
+        var game = new ChessGame();
+        game.setBoard(TestUtilities.loadBoard("""
+                |r| | | |k| | |r|
+                | | | | | | | | |
+                | | | | | | | | |
+                | | | | | | | | |
+                | | | | | | | | |
+                | | | | | | | | |
+                | | | | | | | | |
+                |R| | | |K| | |R|
+                """));
+
+        var kingMoves = game.validMoves(new ChessPosition(1, 5));
+        Assertions.assertTrue(kingMoves.contains(move(1, 5, 1, 7)), "Missing kingside castle");
+        Assertions.assertTrue(kingMoves.contains(move(1, 5, 1, 3)), "Missing queenside castle");
+
+        game.makeMove(move(1, 5, 1, 7));
+        Assertions.assertEquals(ChessPiece.of(ChessGame.TeamColor.WHITE, ChessPiece.PieceType.ROOK),
+                game.getBoard().getPiece(new ChessPosition(1, 6)), "Rook did not move next to the king");
+        Assertions.assertNull(game.getBoard().getPiece(new ChessPosition(1, 8)), "Rook left behind");
+        Assertions.assertEquals(CastlingRights.BLACK_KINGSIDE | CastlingRights.BLACK_QUEENSIDE,
+                game.getCastlingRights(), "White should have no castling rights left");
+    }
+
+    @Test
+    @DisplayName("King may not castle through an attacked square")
+    public void noCastleThroughCheck() {
+        var game = new ChessGame();
+        game.setBoard(TestUtilities.loadBoard("""
+                | | | | |k| | | |
+                | | | | | | | | |
+                | | | | | | | | |
+                | | | | | | | | |
+                | | | | | | | | |
+                | | | | | |r| | |
+                | | | | | | | | |
+                |R| | | |K| | |R|
+                """));
+
+        var kingMoves = game.validMoves(new ChessPosition(1, 5));
+        Assertions.assertFalse(kingMoves.contains(move(1, 5, 1, 7)), "Castled through an attacked square");
+        Assertions.assertTrue(kingMoves.contains(move(1, 5, 1, 3)), "Missing queenside castle");
+    }
+
+    @Test
+    @DisplayName("Pawn captures en passant right after a double step")
+    public void enPassant() throws InvalidMoveException {
+        var game = new ChessGame();
+        game.setBoard(TestUtilities.loadBoard("""
+                | | | | |k| | | |
+                | | | |p| | | | |
+                | | | | | | | | |
+                | | | | |P| | | |
+                | | | | | | | | |
+                | | | | | | | | |
+                | | | | | | | | |
+                | | | | |K| | | |
+                """));
+        game.setTeamTurn(ChessGame.TeamColor.BLACK);
+        game.makeMove(move(7, 4, 5, 4));
+
+        var enPassant = move(5, 5, 6, 4);
+        Assertions.assertTrue(game.validMoves(new ChessPosition(5, 5)).contains(enPassant), "Missing en passant");
+        game.makeMove(enPassant);
+        Assertions.assertNull(game.getBoard().getPiece(new ChessPosition(5, 4)), "Captured pawn was not removed");
+    }
+
+    @Test
+    @DisplayName("En passant may not expose the king along the rank")
+    public void enPassantDiscoveredCheck() throws InvalidMoveException {
+        var game = new ChessGame();
+        game.setBoard(TestUtilities.loadBoard("""
+                | | | | |k| | | |
+                | | | |p| | | | |
+                | | | | | | | | |
+                | |K| | |P| | |r|
+                | | | | | | | | |
+                | | | | | | | | |
+                | | | | | | | | |
+                | | | | | | | | |
+                """));
+        game.setTeamTurn(ChessGame.TeamColor.BLACK);
+        game.makeMove(move(7, 4, 5, 4));
+
+        Assertions.assertFalse(game.validMoves(new ChessPosition(5, 5)).contains(move(5, 5, 6, 4)),
+                "En passant left the king in check");
+    }
+
+    @Test
+    @DisplayName("Pinned piece may only move along the pin")
+    public void pinnedPiece() {
+        var game = new ChessGame();
+        game.setBoard(TestUtilities.loadBoard("""
+                | | | | |k| | | |
+                | | | | | | | | |
+                | | | | | | | | |
+                | | | | |r| | | |
+                | | | | | | | | |
+                | | | | |R| | | |
+                | | | | | | | | |
+                | | | | |K| | | |
+                """));
+
+        var rookMoves = game.validMoves(new ChessPosition(3, 5));
+        Assertions.assertEquals(3, rookMoves.size(), "Pinned rook should stay on the file");
+        for (ChessMove move : rookMoves) {
+            Assertions.assertEquals(5, move.getEndPosition().getColumn(), "Pinned rook left the file");
+        }
+    }
+
+    private static ChessMove move(int fromRow, int fromCol, int toRow, int toCol) {
+        return new ChessMove(new ChessPosition(fromRow, fromCol), new ChessPosition(toRow, toCol), null);
+    }
+}
@@ -0,0 +1,164 @@
+package chess;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+public class NnueEvaluatorTests {
+
+    private static final String KIWIPETE = "r3k2r/p1ppqpb1/bn2pnp1/3PN3/1p2P3/2N2Q1p/PPPBBPPP/R3K2R w KQkq - 0 1";
+
+    @Test
+    @DisplayName("Incremental sums match a board evaluated from scratch")
+    public void incrementalMatchesFresh() {
+        var evaluator = new NnueEvaluator(randomWeights(32, 1));
+        var game = ChessGame.fromFen(KIWIPETE);
+        Evaluator attached = evaluator.attach(game);
+        walk(game, 3, attached, evaluator);
+        Assertions.assertSame(attached, game.getBoard().listener(), "The accumulator stopped listening");
+
+        attached.detach();
+        Assertions.assertNull(game.getBoard().listener());
+    }
+
+    @Test
+    @DisplayName("Evaluating without attaching leaves the board alone")
+    public void readOnly() {
+        var evaluator = new NnueEvaluator(randomWeights(8, 4));
+        var game = ChessGame.fromFen(KIWIPETE);
+        evaluator.evaluate(game);
+        Assertions.assertNull(game.getBoard().listener());
+
+        Evaluator attached = evaluator.attach(game);
+        Assertions.assertEquals(evaluator.evaluate(game), attached.evaluate(game));
+        Assertions.assertThrows(IllegalArgumentException.class, () -> attached.evaluate(new ChessGame(game)));
+        attached.detach();
+    }
+
+    @Test
+    @DisplayName("Mirrored positions score the same for the team to move")
+    public void symmetry() {
+        var evaluator = new NnueEvaluator(randomWeights(16, 2));
+        String[] fens = {KIWIPETE, "4k3/pp6/8/3n4/8/8/PPP5/4K2R b - - 0 1"};
+        for (String fen : fens) {
+            Assertions.assertEquals(evaluator.evaluate(ChessGame.fromFen(fen)),
+                    evaluator.evaluate(ChessGame.fromFen(mirror(fen))), fen);
+        }
+    }
+
+    @Test
+    @DisplayName("A network that counts pawns scores pawns up")
+    public void countsPawns() {
+        var evaluator = new NnueEvaluator(pawnCounter());
+        int pawn = 50 * NnueWeights.QB * NnueWeights.SCALE / (NnueWeights.QA * NnueWeights.QB);
+        Assertions.assertEquals(pawn, evaluator.evaluate(ChessGame.fromFen("4k3/pp6/8/8/8/8/PPP5/4K3 w - - 0 1")));
+        Assertions.assertEquals(-pawn, evaluator.evaluate(ChessGame.fromFen("4k3/pp6/8/8/8/8/PPP5/4K3 b - - 0 1")));
+        Assertions.assertEquals(0, evaluator.evaluate(new ChessGame()));
+    }
+
+    @Test
+    @DisplayName("Search threads share one evaluator and find the free pawn")
+    public void search() {
+        ExecutorService helpers = Executors.newFixedThreadPool(1);
+        try {
+            var search = new ParallelSearch(new TranspositionTable(1 << 20), new NnueEvaluator(pawnCounter()), 2,
+                    helpers);
+            SearchResult result = search.search(ChessGame.fromFen("4k3/8/8/3p4/4P3/8/8/4K3 w - - 0 1"), 4, 5000);
+            Assertions.assertEquals("e4d5", PackedMove.toString(PackedMove.fromChessMove(result.bestMove())));
+        } finally {
+            helpers.shutdown();
+        }
+    }
+
+    @Test
+    @DisplayName("Weights survive a save and load, and other files are rejected")
+    public void saveAndLoad(@TempDir Path dir) throws IOException {
+        var weights = randomWeights(8, 3);
+        Path file = dir.resolve("net.nnue");
+        weights.save(file);
+        var loaded = NnueWeights.load(file);
+        Assertions.assertEquals(8, loaded.hiddenSize());
+        var game = ChessGame.fromFen(KIWIPETE);
+        Assertions.assertEquals(new NnueEvaluator(weights).evaluate(game), new NnueEvaluator(loaded).evaluate(game));
+
+        Path truncated = dir.resolve("truncated.nnue");
+        byte[] bytes = Files.readAllBytes(file);
+        Files.write(truncated, java.util.Arrays.copyOf(bytes, bytes.length - 2));
+        Assertions.assertThrows(IOException.class, () -> NnueWeights.load(truncated));
+        Path text = dir.resolve("text.nnue");
+        Files.writeString(text, "not a network");
+        Assertions.assertThrows(IOException.class, () -> NnueWeights.load(text));
+    }
+
+    private static void walk(ChessGame game, int depth, Evaluator incremental, Evaluator fresh) {
+        Assertions.assertEquals(fresh.evaluate(ChessGame.fromFen(game.toFen())), incremental.evaluate(game),
+                game.toFen());
+        if (depth == 0) {
+            return;
+        }
+        MoveList moves = new MoveList();
+        game.legalMoves(moves);
+        for (int i = 0; i < moves.size(); i++) {
+            game.applyMove(moves.get(i));
+            walk(game, depth - 1, incremental, fresh);
+            game.retractMove();
+        }
+    }
+
+    private static NnueWeights randomWeights(int hidden, long seed) {
+        var random = new Random(seed);
+        short[] inputWeights = new short[NnueWeights.INPUTS * hidden];
+        for (int i = 0; i < inputWeights.length; i++) {
+            inputWeights[i] = (short) (random.nextInt(128) - 64);
+        }
+        short[] hiddenBiases = new short[hidden];
+        for (int i = 0; i < hidden; i++) {
+            hiddenBiases[i] = (short) random.nextInt(64);
+        }
+        short[] outputWeights = new short[2 * hidden];
+        for (int i = 0; i < outputWeights.length; i++) {
+            outputWeights[i] = (short) (random.nextInt(256) - 128);
+        }
+        return new NnueWeights(inputWeights, hiddenBiases, outputWeights, random.nextInt(1000));
+    }
+
+    /**
+     * One neuron adds 50 for each of the team's pawns, scored for the team to
+     * move and against the other
+     */
+    private static NnueWeights pawnCounter() {
+        short[] inputWeights = new short[NnueWeights.INPUTS];
+        for (int square = 0; square < 64; square++) {
+            inputWeights[MoveGenerator.PAWN * 64 + square] = 50;
+        }
+        short[] outputWeights = {(short) NnueWeights.QB, (short) -NnueWeights.QB};
+        return new NnueWeights(inputWeights, new short[1], outputWeights, 0);
+    }
+
+    /**
+     * @return the position with the board flipped, the colors swapped and the
+     * other team to move
+     */
+    private static String mirror(String fen) {
+        String[] fields = fen.split(" ");
+        String[] rows = fields[0].split("/");
+        var placement = new StringBuilder();
+        for (int i = rows.length - 1; i >= 0; i--) {
+            for (char c : rows[i].toCharArray()) {
+                placement.append(Character.isUpperCase(c) ? Character.toLowerCase(c) : Character.toUpperCase(c));
+            }
+            if (i > 0) {
+                placement.append('/');
+            }
+        }
+        return placement + (fields[1].equals("w") ? " b" : " w") + " - - 0 1";
+    }
+}
@@ -0,0 +1,54 @@
+package chess;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+
+public class ParallelPerftTests {
+
+    @Test
+    @DisplayName("Parallel perft matches the published counts")
+    public void matchesSequential() {
+        var pool = new ForkJoinPool(4);
+        try {
+            var game = new ChessGame();
+            Assertions.assertEquals(20, ParallelPerft.perft(game, 1, pool));
+            Assertions.assertEquals(197281, ParallelPerft.perft(game, 4, pool));
+            Assertions.assertEquals(4865609, ParallelPerft.perft(game, 5, pool));
+            Assertions.assertEquals(new ChessGame(), game, "Starting game was modified");
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    @Test
+    @DisplayName("Bulk evaluation keeps results in position order")
+    public void evaluateInOrder() throws InvalidMoveException {
+        List<ChessGame> games = new ArrayList<>();
+        List<Long> expected = new ArrayList<>();
+        var game = new ChessGame();
+        String[] moves = {"e2e4", "e7e5", "g1f3", "b8c6", "f1b5", "a7a6", "b5a4", "g8f6"};
+        for (int i = 0; i < 40; i++) {
+            games.add(new ChessGame(game));
+            expected.add(Perft.perft(game, 2));
+            if (i < moves.length) {
+                ZobristTests.play(game, moves[i]);
+            }
+        }
+
+        // The evaluator plays on its copy, which must not leak into the inputs
+        List<Long> results = ParallelPerft.evaluate(games, copy -> {
+            long nodes = Perft.perft(copy, 2);
+            MoveList list = new MoveList();
+            copy.legalMoves(list);
+            copy.applyMove(list.get(0));
+            return nodes;
+        });
+        Assertions.assertEquals(expected, results);
+        Assertions.assertEquals(new ChessGame(), games.get(0), "Input game was modified");
+    }
+}
@@ -0,0 +1,69 @@
+package chess;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+public class ParallelSearchTests {
+
+    @Test
+    @DisplayName("Parallel search finds the same mate as one thread")
+    public void findsMate() {
+        ExecutorService helpers = Executors.newFixedThreadPool(3);
+        try {
+            var search = new ParallelSearch(new TranspositionTable(1 << 20), new MaterialEvaluator(), 4, helpers);
+            var game = ChessGame.fromFen("7k/8/8/8/8/8/R7/1R4K1 w - - 0 1");
+            SearchResult result = search.search(game, 6, 5000);
+
+            Assertions.assertEquals(2, result.mateIn());
+            Assertions.assertEquals(ChessGame.fromFen("7k/8/8/8/8/8/R7/1R4K1 w - - 0 1"), game);
+        } finally {
+            helpers.shutdown();
+        }
+    }
+
+    @Test
+    @DisplayName("Nodes from every thread are counted and the time budget holds")
+    public void countsAllThreads() {
+        ExecutorService helpers = Executors.newFixedThreadPool(3);
+        try {
+            var table = new TranspositionTable(1 << 22);
+            var game = ChessGame.fromFen("r3k2r/p1ppqpb1/bn2pnp1/3PN3/1p2P3/2N2Q1p/PPPBBPPP/R3K2R w KQkq - 0 1");
+            long start = System.nanoTime();
+            SearchResult result = new ParallelSearch(table, new MaterialEvaluator(), 4, helpers)
+                    .search(game, 200);
+            long millis = (System.nanoTime() - start) / 1_000_000;
+
+            Assertions.assertNotNull(result.bestMove());
+            Assertions.assertTrue(result.depth() >= 1);
+            Assertions.assertTrue(millis < 400, "Took " + millis + " ms");
+            Assertions.assertTrue(result.nodesPerSecond() > 0);
+        } finally {
+            helpers.shutdown();
+        }
+    }
+
+    @Test
+    @DisplayName("Stopping from another thread ends the search early")
+    public void stop() throws Exception {
+        ExecutorService threads = Executors.newFixedThreadPool(3);
+        try {
+            var search = new ParallelSearch(new TranspositionTable(1 << 22), new MaterialEvaluator(), 2, threads);
+            long start = System.nanoTime();
+            Future<SearchResult> running = threads.submit(() -> search.search(new ChessGame(), 60_000));
+            Thread.sleep(100);
+            search.stop();
+            SearchResult result = running.get();
+            long millis = (System.nanoTime() - start) / 1_000_000;
+
+            Assertions.assertNotNull(result.bestMove());
+            Assertions.assertTrue(millis < 5000, "Took " + millis + " ms to stop");
+        } finally {
+            threads.shutdown();
+        }
+    }
+}
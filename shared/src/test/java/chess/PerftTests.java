@@ -0,0 +1,62 @@
+package chess;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import passoff.chess.TestUtilities;
+
+/**
+ * Node counts from the Chess Programming Wiki's perft results page
+ */
+public class PerftTests {
+
+    @Test
+    @DisplayName("Starting position")
+    public void startingPosition() {
+        var game = new ChessGame();
+        long[] expected = {20, 400, 8902, 197281};
+        for (int depth = 1; depth <= expected.length; depth++) {
+            Assertions.assertEquals(expected[depth - 1], Perft.perft(game, depth), "depth " + depth);
+        }
+    }
+
+    @Test
+    @DisplayName("Castling, promotion and pins (\"Kiwipete\")")
+    public void kiwipete() {
+        var game = new ChessGame();
+        game.setBoard(TestUtilities.loadBoard("""
+                |r| | | |k| | |r|
+                |p| |p|p|q|p|b| |
+                |b|n| | |p|n|p| |
+                | | | |P|N| | | |
+                | |p| | |P| | | |
+                | | |N| | |Q| |p|
+                |P|P|P|B|B|P|P|P|
+                |R| | | |K| | |R|
+                """));
+        long[] expected = {48, 2039, 97862};
+        for (int depth = 1; depth <= expected.length; depth++) {
+            Assertions.assertEquals(expected[depth - 1], Perft.perft(game, depth), "depth " + depth);
+        }
+    }
+
+    @Test
+    @DisplayName("En passant and discovered checks")
+    public void enPassantEndgame() {
+        var game = new ChessGame();
+        game.setBoard(TestUtilities.loadBoard("""
+                | | | | | | | | |
+                | | |p| | | | | |
+                | | | |p| | | | |
+                |K|P| | | | | |r|
+                | |R| | | |p| |k|
+                | | | | | | | | |
+                | | | | |P| |P| |
+                | | | | | | | | |
+                """));
+        long[] expected = {14, 191, 2812, 43238};
+        for (int depth = 1; depth <= expected.length; depth++) {
+            Assertions.assertEquals(expected[depth - 1], Perft.perft(game, depth), "depth " + depth);
+        }
+    }
+}
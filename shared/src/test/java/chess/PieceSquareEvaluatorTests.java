@@ -0,0 +1,51 @@
+package chess;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+public class PieceSquareEvaluatorTests {
+
+    private final Evaluator evaluator = new PieceSquareEvaluator();
+
+    @Test
+    @DisplayName("Symmetric positions score 0 and mirrored ones score the same for the mover")
+    public void symmetry() {
+        Assertions.assertEquals(0, evaluator.evaluate(new ChessGame()));
+
+        var white = ChessGame.fromFen("4k3/8/8/8/3N4/8/1P6/4K3 w - - 0 1");
+        var black = ChessGame.fromFen("4k3/1p6/8/3n4/8/8/8/4K3 b - - 0 1");
+        Assertions.assertEquals(evaluator.evaluate(white), evaluator.evaluate(black));
+        Assertions.assertTrue(evaluator.evaluate(white) > 300, "A knight and pawn up should score well");
+    }
+
+    @Test
+    @DisplayName("Incremental sums match a board built from scratch")
+    public void incrementalMatchesFresh() {
+        var game = ChessGame.fromFen("r3k2r/p1ppqpb1/bn2pnp1/3PN3/1p2P3/2N2Q1p/PPPBBPPP/R3K2R w KQkq - 0 1");
+        walk(game, 3);
+    }
+
+    @Test
+    @DisplayName("Centralized knights score better than knights on the rim")
+    public void placement() {
+        var centre = ChessGame.fromFen("4k3/8/8/8/3N4/8/8/4K3 w - - 0 1");
+        var rim = ChessGame.fromFen("4k3/8/8/8/8/8/8/N3K3 w - - 0 1");
+        Assertions.assertTrue(evaluator.evaluate(centre) > evaluator.evaluate(rim));
+    }
+
+    private void walk(ChessGame game, int depth) {
+        Assertions.assertEquals(evaluator.evaluate(ChessGame.fromFen(game.toFen())), evaluator.evaluate(game),
+                game.toFen());
+        if (depth == 0) {
+            return;
+        }
+        MoveList moves = new MoveList();
+        game.legalMoves(moves);
+        for (int i = 0; i < moves.size(); i++) {
+            game.applyMove(moves.get(i));
+            walk(game, depth - 1);
+            game.retractMove();
+        }
+    }
+}
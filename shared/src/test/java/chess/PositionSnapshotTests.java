@@ -0,0 +1,62 @@
+package chess;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.atomic.AtomicReference;
+
+public class PositionSnapshotTests {
+
+    @Test
+    @DisplayName("Snapshot follows moves and never changes afterwards")
+    public void publishedPerMove() throws InvalidMoveException {
+        var game = new ChessGame();
+        var start = game.snapshot();
+
+        ZobristTests.play(game, "e2e4");
+        var afterMove = game.snapshot();
+        Assertions.assertNotSame(start, afterMove);
+        Assertions.assertEquals(ChessGame.TeamColor.BLACK, afterMove.getTeamTurn());
+        Assertions.assertEquals(game.zobristKey(), afterMove.zobristKey());
+        Assertions.assertEquals(game, afterMove.toGame());
+
+        Assertions.assertEquals(new ChessGame().snapshot(), start, "Earlier snapshot changed");
+        Assertions.assertNotNull(start.getPiece(new ChessPosition(2, 5)));
+        Assertions.assertNull(afterMove.getPiece(new ChessPosition(2, 5)));
+
+        game.getBoard().removePiece(new ChessPosition(1, 1));
+        Assertions.assertNotNull(game.snapshot().getPiece(new ChessPosition(1, 1)),
+                "Snapshot is backed by the live board");
+    }
+
+    @Test
+    @DisplayName("Readers on other threads only see whole positions")
+    public void concurrentReaders() throws Exception {
+        var game = new ChessGame();
+        var failure = new AtomicReference<Throwable>();
+        Thread[] readers = new Thread[4];
+        for (int i = 0; i < readers.length; i++) {
+            readers[i] = new Thread(() -> {
+                try {
+                    for (int j = 0; j < 20_000; j++) {
+                        var snapshot = game.snapshot();
+                        // Only knights shuffle, so every position has all 32 pieces
+                        Assertions.assertEquals(32, Long.bitCount(snapshot.toBoard().occupancy()));
+                        Assertions.assertEquals(snapshot.zobristKey(), snapshot.toGame().zobristKey());
+                    }
+                } catch (Throwable e) {
+                    failure.compareAndSet(null, e);
+                }
+            });
+            readers[i].start();
+        }
+        for (int i = 0; i < 500; i++) {
+            ZobristTests.play(game, "g1f3", "g8f6", "f3g1", "f6g8");
+        }
+        for (Thread reader : readers) {
+            reader.join();
+        }
+        Assertions.assertNull(failure.get(), () -> "Reader saw a broken position: " + failure.get());
+    }
+}
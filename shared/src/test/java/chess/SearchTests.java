@@ -0,0 +1,112 @@
+package chess;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+public class SearchTests {
+
+    private static Search newSearch() {
+        return new Search(new TranspositionTable(1 << 20), new MaterialEvaluator());
+    }
+
+    @Test
+    @DisplayName("Finds a back rank mate in one")
+    public void mateInOne() {
+        var game = ChessGame.fromFen("6k1/5ppp/8/8/8/8/8/R5K1 w - - 0 1");
+        SearchResult result = newSearch().search(game, 4, 5000);
+
+        Assertions.assertEquals(move("a1a8"), result.bestMove());
+        Assertions.assertEquals(1, result.mateIn());
+    }
+
+    @Test
+    @DisplayName("Sees a mate at the horizon instead of standing pat in check")
+    public void mateAtHorizon() {
+        var game = ChessGame.fromFen("6k1/5ppp/8/8/8/8/8/R5K1 w - - 0 1");
+        SearchResult result = newSearch().search(game, 1, 5000);
+        Assertions.assertEquals(move("a1a8"), result.bestMove());
+        Assertions.assertEquals(Search.MATE - 1, result.score());
+    }
+
+    @Test
+    @DisplayName("Finds a mate in two with a quiet first move")
+    public void mateInTwo() {
+        // 1. Ra7 Kg8 2. Rb8#, or the same with the rooks swapped
+        var game = ChessGame.fromFen("7k/8/8/8/8/8/R7/1R4K1 w - - 0 1");
+        SearchResult result = newSearch().search(game, 6, 5000);
+
+        Assertions.assertEquals(2, result.mateIn(), "Score " + result.score());
+        Assertions.assertEquals(Search.MATE - 3, result.score());
+    }
+
+    @Test
+    @DisplayName("Keeps the best move when the table is too small to hold the root entry")
+    public void tinyTable() {
+        var game = ChessGame.fromFen("7k/8/8/8/8/8/R7/1R4K1 w - - 0 1");
+        var search = new Search(new TranspositionTable(32), new MaterialEvaluator());
+        SearchResult result = search.search(game, 6, 5000);
+        Assertions.assertEquals(2, result.mateIn(), "Score " + result.score());
+
+        // Stopped partway through, the answer is still a finished iteration's move or better
+        var kiwipete = ChessGame.fromFen("r3k2r/p1ppqpb1/bn2pnp1/3PN3/1p2P3/2N2Q1p/PPPBBPPP/R3K2R w KQkq - 0 1");
+        result = search.search(kiwipete, 50);
+        Assertions.assertTrue(result.depth() >= 1);
+        Assertions.assertTrue(kiwipete.validMoves(result.bestMove().getStartPosition()).contains(result.bestMove()));
+    }
+
+    @Test
+    @DisplayName("Wins a queen left en prise and avoids a defended one")
+    public void capturesHangingPiece() {
+        var hanging = ChessGame.fromFen("4k3/8/8/3q4/8/8/8/3RK3 w - - 0 1");
+        Assertions.assertEquals(move("d1d5"), newSearch().search(hanging, 4, 5000).bestMove());
+
+        // Taking the defended rook loses the queen to the pawn
+        var defended = ChessGame.fromFen("4k3/2p5/3r4/8/8/8/8/3QK3 w - - 0 1");
+        Assertions.assertNotEquals(move("d1d6"), newSearch().search(defended, 4, 5000).bestMove());
+    }
+
+    @Test
+    @DisplayName("Stays within the time budget and still returns a move")
+    public void timeBudget() {
+        var game = new ChessGame();
+        long start = System.nanoTime();
+        SearchResult result = newSearch().search(game, 100);
+        long millis = (System.nanoTime() - start) / 1_000_000;
+
+        Assertions.assertNotNull(result.bestMove());
+        Assertions.assertTrue(game.validMoves(result.bestMove().getStartPosition()).contains(result.bestMove()));
+        Assertions.assertTrue(millis < 300, "Took " + millis + " ms");
+        Assertions.assertTrue(result.nodes() > 0);
+
+        Assertions.assertNotNull(newSearch().search(game, 0).bestMove(), "No move without time to search");
+    }
+
+    @Test
+    @DisplayName("Reports no move when the game is over")
+    public void noLegalMoves() {
+        var mated = ChessGame.fromFen("R5k1/5ppp/8/8/8/8/8/6K1 b - - 1 1");
+        SearchResult result = newSearch().search(mated, 1000);
+
+        Assertions.assertNull(result.bestMove());
+        Assertions.assertEquals(-Search.MATE, result.score());
+    }
+
+    @Test
+    @DisplayName("Leaves the searched game unchanged")
+    public void positionUnchanged() throws InvalidMoveException {
+        var game = new ChessGame();
+        ZobristTests.play(game, "e2e4", "e7e5");
+        var before = new ChessGame(game);
+        newSearch().search(game, 4, 5000);
+
+        Assertions.assertEquals(before, game);
+        Assertions.assertEquals(2, game.getMoveHistory().length);
+    }
+
+    private static ChessMove move(String uci) {
+        int from = (uci.charAt(1) - '1') * 8 + (uci.charAt(0) - 'a');
+        int to = (uci.charAt(3) - '1') * 8 + (uci.charAt(2) - 'a');
+        return new ChessMove(ChessPosition.ofSquare(from), ChessPosition.ofSquare(to), null);
+    }
+}
@@ -0,0 +1,63 @@
+package chess;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+public class SeeTests {
+
+    @Test
+    @DisplayName("Taking an undefended piece wins it")
+    public void undefended() {
+        Assertions.assertEquals(100, see("1k1r4/1pp4p/p7/4p3/8/P5P1/1PP4P/2K1R3 w - - 0 1", "e1e5"));
+    }
+
+    @Test
+    @DisplayName("Taking a defended pawn with the queen loses the queen")
+    public void defended() {
+        Assertions.assertEquals(-800, see("4k3/8/3p4/4p3/8/8/8/4QK2 w - - 0 1", "e1e5"));
+    }
+
+    @Test
+    @DisplayName("A rook behind the capturer joins the exchange")
+    public void xRay() {
+        Assertions.assertEquals(100, see("4r1k1/8/8/4p3/8/8/4R3/4R1K1 w - - 0 1", "e2e5"));
+        Assertions.assertEquals(-400, see("4r1k1/8/8/4p3/8/8/4R3/6K1 w - - 0 1", "e2e5"));
+    }
+
+    @Test
+    @DisplayName("The king only captures when nothing can take it back")
+    public void king() {
+        Assertions.assertEquals(100, see("8/8/8/8/6k1/5p2/8/3B1RK1 w - - 0 1", "f1f3"));
+        Assertions.assertEquals(-400, see("8/8/8/8/6k1/5p2/8/5RK1 w - - 0 1", "f1f3"));
+    }
+
+    @Test
+    @DisplayName("En passant and promotions count the right material")
+    public void specialMoves() {
+        Assertions.assertEquals(100, see("4k3/8/8/3pP3/8/8/8/4K3 w - d6 0 1", "e5d6"));
+        Assertions.assertEquals(-100, see("3r2k1/4P3/8/8/8/8/8/4K3 w - - 0 1", "e7e8q"));
+        Assertions.assertEquals(1300, see("3r2k1/4P3/8/8/8/8/8/4K3 w - - 0 1", "e7d8q"));
+    }
+
+    @Test
+    @DisplayName("Search never plays a losing capture first")
+    public void ordering() {
+        // The queen can take a defended pawn but the rook wins a free knight
+        var game = ChessGame.fromFen("4k3/8/3p4/4p3/8/1n6/8/1R2QK2 w - - 0 1");
+        var result = new Search(new TranspositionTable(1 << 16), new MaterialEvaluator()).search(game, 2, 1000);
+        Assertions.assertEquals("b1b3", PackedMove.toString(PackedMove.fromChessMove(result.bestMove())));
+    }
+
+    private static int see(String fen, String uci) {
+        var game = ChessGame.fromFen(fen);
+        MoveList moves = new MoveList();
+        game.legalMoves(moves);
+        for (int i = 0; i < moves.size(); i++) {
+            if (PackedMove.toString(moves.get(i)).equals(uci)) {
+                return MoveGenerator.see(game.getBoard(), moves.get(i), new int[MoveGenerator.MAX_EXCHANGES]);
+            }
+        }
+        throw new AssertionError(uci + " is not legal in " + fen);
+    }
+}
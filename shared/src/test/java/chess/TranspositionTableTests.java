@@ -0,0 +1,65 @@
+package chess;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.ForkJoinPool;
+
+public class TranspositionTableTests {
+
+    @Test
+    @DisplayName("Entries round trip through the table")
+    public void storeAndProbe() {
+        var table = new TranspositionTable(1 << 16);
+        int move = PackedMove.of(12, 28, null, PackedMove.DOUBLE_PUSH);
+        long search = TranspositionTable.searchEntry(move, -350, 7, TranspositionTable.LOWER_BOUND, 31);
+        table.store(42, search);
+        table.store(43, TranspositionTable.perftEntry(5, 4865609));
+
+        long entry = table.probe(42);
+        Assertions.assertFalse(TranspositionTable.isPerft(entry));
+        Assertions.assertEquals(move, TranspositionTable.move(entry));
+        Assertions.assertEquals(-350, TranspositionTable.score(entry));
+        Assertions.assertEquals(7, TranspositionTable.depth(entry));
+        Assertions.assertEquals(TranspositionTable.LOWER_BOUND, TranspositionTable.bound(entry));
+        Assertions.assertEquals(31, TranspositionTable.moveCount(entry));
+
+        entry = table.probe(43);
+        Assertions.assertTrue(TranspositionTable.isPerft(entry));
+        Assertions.assertEquals(4865609, TranspositionTable.nodes(entry));
+        Assertions.assertEquals(TranspositionTable.MISS, table.probe(44));
+    }
+
+    @Test
+    @DisplayName("A colliding key misses, and the deepest entry survives")
+    public void collisions() {
+        var table = new TranspositionTable(32);
+        Assertions.assertEquals(32, table.sizeInBytes(), "Expected a single bucket");
+
+        table.store(1, TranspositionTable.perftEntry(6, 100));
+        Assertions.assertEquals(TranspositionTable.MISS, table.probe(2), "Another key read a stored entry");
+        table.store(2, TranspositionTable.perftEntry(2, 200));
+        table.store(3, TranspositionTable.perftEntry(3, 300));
+
+        Assertions.assertEquals(100, TranspositionTable.nodes(table.probe(1)), "Deepest entry was replaced");
+        Assertions.assertEquals(TranspositionTable.MISS, table.probe(2));
+        Assertions.assertEquals(300, TranspositionTable.nodes(table.probe(3)));
+    }
+
+    @Test
+    @DisplayName("Perft through a shared table keeps the published counts")
+    public void perftWithTable() {
+        var table = new TranspositionTable(1 << 20);
+        var game = new ChessGame();
+        Assertions.assertEquals(197281, Perft.perft(game, 4, table));
+        Assertions.assertEquals(197281, Perft.perft(game, 4, table), "Stored count changed");
+
+        var pool = new ForkJoinPool(4);
+        try {
+            Assertions.assertEquals(4865609, ParallelPerft.perft(game, 5, pool, table));
+        } finally {
+            pool.shutdown();
+        }
+    }
+}
@@ -0,0 +1,101 @@
+package chess;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import passoff.chess.TestUtilities;
+
+public class UnmakeMoveTests {
+
+    @Test
+    @DisplayName("Unmaking every move restores the full position")
+    public void restoresEveryMove() {
+        var game = new ChessGame();
+        game.setBoard(TestUtilities.loadBoard("""
+                |r| | | |k| | |r|
+                |p| |p|p|q|p|b| |
+                |b|n| | |p|n|p| |
+                | | | |P|N| | | |
+                | |p| | |P| | | |
+                | | |N| | |Q| |p|
+                |P|P|P|B|B|P|P|P|
+                |R| | | |K| | |R|
+                """));
+        walk(game, 3);
+    }
+
+    @Test
+    @DisplayName("Unmaking restores promotions, en passant and the halfmove clock")
+    public void restoresIrreversibleState() throws InvalidMoveException {
+        var game = new ChessGame();
+        game.setBoard(TestUtilities.loadBoard("""
+                | | | | |k| | | |
+                | |P| |p| | | | |
+                | | | | | | | | |
+                | | | | |P| | | |
+                | | | | | | | | |
+                | | | | | | | | |
+                | | | | | | | | |
+                |R| | | |K| | | |
+                """));
+        game.setTeamTurn(ChessGame.TeamColor.BLACK);
+        var start = new ChessGame(game);
+
+        ZobristTests.play(game, "d7d5", "e5d6");
+        Assertions.assertNull(game.getBoard().getPiece(new ChessPosition(5, 4)), "En passant did not capture");
+        ZobristTests.play(game, "e8f7", "a1a2", "f7e6");
+        Assertions.assertEquals(3, game.getHalfmoveClock());
+        game.makeMove(new ChessMove(new ChessPosition(7, 2), new ChessPosition(8, 2), ChessPiece.PieceType.QUEEN));
+        Assertions.assertEquals(0, game.getHalfmoveClock());
+
+        game.unmakeMove();
+        Assertions.assertEquals(ChessPiece.PieceType.PAWN,
+                game.getBoard().getPiece(new ChessPosition(7, 2)).getPieceType(), "Promotion was not undone");
+        Assertions.assertEquals(3, game.getHalfmoveClock());
+        for (int i = 0; i < 5; i++) {
+            game.unmakeMove();
+        }
+        Assertions.assertEquals(start, game);
+        Assertions.assertEquals(start.zobristKey(), game.snapshot().zobristKey());
+        Assertions.assertEquals(0, game.getHalfmoveClock());
+        Assertions.assertThrows(InvalidMoveException.class, game::unmakeMove);
+    }
+
+    @Test
+    @DisplayName("Move history lists the moves that can be taken back")
+    public void moveHistory() throws InvalidMoveException {
+        var game = ChessGame.fromFen("rnbqkbnr/pppppppp/8/8/8/8/PPPPPPPP/RNBQKBNR w KQkq - 0 5");
+        ZobristTests.play(game, "e2e4", "e7e5", "g1f3");
+        Assertions.assertEquals(11, game.getPly());
+
+        int[] history = game.getMoveHistory();
+        Assertions.assertEquals(3, history.length);
+        Assertions.assertEquals("e2e4", PackedMove.toString(history[0]));
+        Assertions.assertTrue(PackedMove.hasFlag(history[0], PackedMove.DOUBLE_PUSH));
+        Assertions.assertEquals("g1f3", PackedMove.toString(history[2]));
+
+        game.unmakeMove();
+        Assertions.assertEquals(2, game.getMoveHistory().length);
+        game.setTeamTurn(ChessGame.TeamColor.WHITE);
+        Assertions.assertEquals(0, game.getMoveHistory().length);
+        Assertions.assertEquals(10, game.getPly());
+    }
+
+    private static void walk(ChessGame game, int depth) {
+        if (depth == 0) {
+            return;
+        }
+        MoveList moves = new MoveList();
+        game.legalMoves(moves);
+        for (int i = 0; i < moves.size(); i++) {
+            var before = new ChessGame(game);
+            int clock = game.getHalfmoveClock();
+            game.applyMove(moves.get(i));
+            walk(game, depth - 1);
+            game.retractMove();
+            Assertions.assertEquals(before, game, "After " + PackedMove.toString(moves.get(i)));
+            Assertions.assertEquals(before.zobristKey(), game.zobristKey());
+            Assertions.assertEquals(clock, game.getHalfmoveClock());
+        }
+    }
+}
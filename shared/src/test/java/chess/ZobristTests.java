@@ -0,0 +1,64 @@
+package chess;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+public class ZobristTests {
+
+    @Test
+    @DisplayName("Transposed move orders reach the same key")
+    public void transposition() throws InvalidMoveException {
+        var first = new ChessGame();
+        play(first, "g1f3", "g8f6", "b1c3", "b8c6");
+        var second = new ChessGame();
+        play(second, "b1c3", "b8c6", "g1f3", "g8f6");
+
+        Assertions.assertEquals(first.zobristKey(), second.zobristKey());
+        Assertions.assertEquals(first, second);
+    }
+
+    @Test
+    @DisplayName("Key follows the side to move and castling rights")
+    public void sideAndCastling() throws InvalidMoveException {
+        var game = new ChessGame();
+        long start = game.zobristKey();
+
+        game.setTeamTurn(ChessGame.TeamColor.BLACK);
+        Assertions.assertNotEquals(start, game.zobristKey(), "Side to move is not part of the key");
+
+        // Knights out and back: same placement, same side, same rights
+        game.setTeamTurn(ChessGame.TeamColor.WHITE);
+        play(game, "g1f3", "g8f6", "f3g1", "f6g8");
+        Assertions.assertEquals(start, game.zobristKey());
+
+        // Rooks out and back: same placement, but the kingside rights are gone
+        play(game, "g1f3", "g8f6", "h1g1", "h8g8", "g1h1", "g8h8", "f3g1", "f6g8");
+        Assertions.assertEquals(new ChessGame().getBoard().zobristKey(), game.getBoard().zobristKey());
+        Assertions.assertNotEquals(start, game.zobristKey(), "Castling rights are not part of the key");
+    }
+
+    @Test
+    @DisplayName("Board key matches a board built from scratch")
+    public void incrementalMatchesFresh() throws InvalidMoveException {
+        var game = new ChessGame();
+        play(game, "e2e4", "d7d5", "e4d5", "d8d5");
+
+        var fresh = new ChessBoard();
+        for (int square = 0; square < 64; square++) {
+            ChessPiece piece = game.getBoard().pieceAt(square);
+            if (piece != null) {
+                fresh.addPiece(ChessPosition.ofSquare(square), piece);
+            }
+        }
+        Assertions.assertEquals(fresh.zobristKey(), game.getBoard().zobristKey());
+    }
+
+    static void play(ChessGame game, String... moves) throws InvalidMoveException {
+        for (String move : moves) {
+            int from = (move.charAt(1) - '1') * 8 + (move.charAt(0) - 'a');
+            int to = (move.charAt(3) - '1') * 8 + (move.charAt(2) - 'a');
+            game.makeMove(new ChessMove(ChessPosition.ofSquare(from), ChessPosition.ofSquare(to), null));
+        }
+    }
+}
@@ -0,0 +1,65 @@
+package serialization;
+
+import chess.ChessBoard;
+import chess.ChessGame;
+import chess.ChessMove;
+import chess.ChessPiece;
+import chess.ChessPosition;
+import chess.InvalidMoveException;
+import com.google.gson.JsonParseException;
+import model.GameData;
+import model.ListGamesResponse;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+public class SerializerTests {
+
+    @Test
+    @DisplayName("Chess types round trip in their compact forms")
+    public void chessTypes() throws InvalidMoveException {
+        var gson = Serializer.gson();
+        var game = new ChessGame();
+        game.makeMove(new ChessMove(new ChessPosition(2, 5), new ChessPosition(4, 5), null));
+
+        String json = gson.toJson(game);
+        Assertions.assertEquals("\"rnbqkbnr/pppppppp/8/8/4P3/8/PPPP1PPP/RNBQKBNR b KQkq - 0 1\"", json);
+        Assertions.assertEquals(game, gson.fromJson(json, ChessGame.class));
+
+        Assertions.assertEquals(game.getBoard(), gson.fromJson(gson.toJson(game.getBoard()), ChessBoard.class));
+        Assertions.assertEquals("\"n\"", gson.toJson(ChessPiece.of(ChessGame.TeamColor.BLACK,
+                ChessPiece.PieceType.KNIGHT)));
+        Assertions.assertEquals(ChessPiece.of(ChessGame.TeamColor.WHITE, ChessPiece.PieceType.KING),
+                gson.fromJson("\"K\"", ChessPiece.class));
+
+        var promotion = new ChessMove(new ChessPosition(7, 1), new ChessPosition(8, 2), ChessPiece.PieceType.KNIGHT);
+        Assertions.assertEquals("\"a7b8n\"", gson.toJson(promotion));
+        Assertions.assertEquals(promotion, gson.fromJson("\"a7b8n\"", ChessMove.class));
+        Assertions.assertEquals(new ChessPosition(3, 8), gson.fromJson("\"h3\"", ChessPosition.class));
+    }
+
+    @Test
+    @DisplayName("Game lists round trip, leaving out missing players")
+    public void gameList() {
+        var gson = Serializer.gson();
+        var games = new GameData[]{
+                new GameData(1, "alice", null, "First", new ChessGame()),
+                new GameData(2, null, "bob", "Second", null),
+        };
+        String json = gson.toJson(new ListGamesResponse(games, null));
+        Assertions.assertFalse(json.contains("blackUsername\":null"), json);
+
+        var parsed = gson.fromJson(json, ListGamesResponse.class);
+        Assertions.assertArrayEquals(games, parsed.games());
+    }
+
+    @Test
+    @DisplayName("Malformed chess values are rejected")
+    public void malformed() {
+        var gson = Serializer.gson();
+        Assertions.assertThrows(JsonParseException.class, () -> gson.fromJson("\"i9\"", ChessPosition.class));
+        Assertions.assertThrows(JsonParseException.class, () -> gson.fromJson("\"e2e4x\"", ChessMove.class));
+        Assertions.assertThrows(JsonParseException.class, () -> gson.fromJson("\"x\"", ChessPiece.class));
+        Assertions.assertThrows(JsonParseException.class, () -> gson.fromJson("\"8/8 w\"", ChessGame.class));
+    }
+}